@@ -0,0 +1,62 @@
+package org.engine.pickerengine.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.engine.pickerengine.dto.InstagramPost;
+import org.engine.pickerengine.dto.InstagramProfile;
+import org.engine.pickerengine.dto.InstagramProfileWithPosts;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkFixtures {
+
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private BenchmarkFixtures() {
+    }
+
+    static String read(String name) {
+        try (InputStream input = BenchmarkFixtures.class.getResourceAsStream("/stub/" + name)) {
+            if (input == null) {
+                throw new IllegalStateException("Missing fixture: " + name);
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    static JsonNode readJson(String name) {
+        try {
+            return OBJECT_MAPPER.readTree(read(name));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    static JsonNode profileUser() {
+        return readJson("web_profile_info.json").path("data").path("user");
+    }
+
+    static List<JsonNode> feedItems() {
+        List<JsonNode> items = new ArrayList<>();
+        for (JsonNode item : readJson("feed_user.json").path("items")) {
+            items.add(item);
+        }
+        return items;
+    }
+
+    static InstagramProfileWithPosts profileWithPosts() {
+        InstagramProfile profile = InstagramService.buildProfile(profileUser(), "sample.creator");
+        List<InstagramPost> posts = new ArrayList<>();
+        for (JsonNode item : feedItems()) {
+            posts.add(InstagramService.parsePost(item));
+        }
+        return new InstagramProfileWithPosts(profile, posts);
+    }
+}
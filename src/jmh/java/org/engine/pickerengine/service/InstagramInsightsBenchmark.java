@@ -0,0 +1,26 @@
+package org.engine.pickerengine.service;
+
+import org.engine.pickerengine.dto.InstagramProfileInsights;
+import org.engine.pickerengine.dto.InstagramProfileWithPosts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class InstagramInsightsBenchmark {
+
+    private InstagramProfileInsightsService insightsService;
+    private InstagramProfileWithPosts data;
+
+    @Setup
+    public void setUp() {
+        insightsService = new InstagramProfileInsightsService(null, null);
+        data = BenchmarkFixtures.profileWithPosts();
+    }
+
+    @Benchmark
+    public InstagramProfileInsights buildInsights() {
+        return insightsService.buildInsights("sample.creator", data, "51234567890");
+    }
+}
@@ -0,0 +1,54 @@
+package org.engine.pickerengine.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.engine.pickerengine.dto.InstagramKeywordResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class InstagramModelResponseBenchmark {
+
+    private static final String PRICE_JSON = """
+            {"unit":{"currency":"KRW","amount_unit":"won","vat":"excluded"},
+             "items":[{"name":"Reels 1","price":500000},{"name":"Feed 1","price":300000},
+                      {"name":"Story 3","price":150000}],
+             "global_notes":["2 revisions included"]}
+            """;
+    private static final String PRICE_WRAPPED = "\uFEFF단가표 분석 결과입니다.\n```json\n" + PRICE_JSON + "```\n참고 부탁드립니다.";
+    private static final String KEYWORD_JSON =
+            "{\"keywords\":[\"카페투어\",\"브런치\",\"디저트\",\"성수\",\"홈쿡\"],\"category\":[\"food\",\"lifestyle\"]}";
+    private static final String KEYWORD_WRAPPED = "Here are the keywords:\n" + KEYWORD_JSON + "\nLet me know if you need more.";
+
+    private InstagramPriceService priceService;
+    private InstagramKeywordService keywordService;
+
+    @Setup
+    public void setUp() {
+        priceService = new InstagramPriceService(null, "", "", "v1", 20, "", new SimpleMeterRegistry(), null, OpenTelemetry.noop());
+        keywordService = new InstagramKeywordService(null, null, null, "", "", 10, "v2", 20, "", new SimpleMeterRegistry(), null, OpenTelemetry.noop());
+    }
+
+    @Benchmark
+    public JsonNode parsePriceResponseClean() {
+        return priceService.parsePriceResponse(PRICE_JSON);
+    }
+
+    @Benchmark
+    public JsonNode parsePriceResponseRecovered() {
+        return priceService.parsePriceResponse(PRICE_WRAPPED);
+    }
+
+    @Benchmark
+    public InstagramKeywordResponse parseKeywordResponseClean() {
+        return keywordService.parseKeywordResponse(KEYWORD_JSON);
+    }
+
+    @Benchmark
+    public InstagramKeywordResponse parseKeywordResponseRecovered() {
+        return keywordService.parseKeywordResponse(KEYWORD_WRAPPED);
+    }
+}
@@ -0,0 +1,48 @@
+package org.engine.pickerengine.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.engine.pickerengine.dto.InstagramPost;
+import org.engine.pickerengine.dto.InstagramProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class InstagramParsingBenchmark {
+
+    private String feedBody;
+    private List<JsonNode> feedItems;
+    private JsonNode profileUser;
+
+    @Setup
+    public void setUp() {
+        feedBody = BenchmarkFixtures.read("feed_user.json");
+        feedItems = BenchmarkFixtures.feedItems();
+        profileUser = BenchmarkFixtures.profileUser();
+    }
+
+    @Benchmark
+    public void parsePosts(Blackhole blackhole) {
+        for (JsonNode item : feedItems) {
+            blackhole.consume(InstagramService.parsePost(item));
+        }
+    }
+
+    @Benchmark
+    public void parseFeedPage(Blackhole blackhole) throws Exception {
+        JsonNode root = BenchmarkFixtures.OBJECT_MAPPER.readTree(feedBody);
+        for (JsonNode item : root.path("items")) {
+            InstagramPost post = InstagramService.parsePost(item);
+            blackhole.consume(post);
+        }
+    }
+
+    @Benchmark
+    public InstagramProfile buildProfile() {
+        return InstagramService.buildProfile(profileUser, "sample.creator");
+    }
+}
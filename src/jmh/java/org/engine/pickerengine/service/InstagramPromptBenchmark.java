@@ -0,0 +1,31 @@
+package org.engine.pickerengine.service;
+
+import org.engine.pickerengine.dto.InstagramProfileWithPosts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class InstagramPromptBenchmark {
+
+    @Param({"v1", "v2", "v3"})
+    public String version;
+
+    private InstagramPromptService promptService;
+    private InstagramProfileWithPosts data;
+    private String template;
+
+    @Setup
+    public void setUp() {
+        promptService = new InstagramPromptService("v1,v2,v3");
+        data = BenchmarkFixtures.profileWithPosts();
+        template = promptService.loadTemplateRaw(version);
+    }
+
+    @Benchmark
+    public String buildPromptFromTemplate() {
+        return promptService.buildPromptFromTemplate(data, 10, template);
+    }
+}
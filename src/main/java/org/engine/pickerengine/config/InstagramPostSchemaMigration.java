@@ -0,0 +1,122 @@
+package org.engine.pickerengine.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+@Component
+@DependsOn("entityManagerFactory")
+public class InstagramPostSchemaMigration implements InitializingBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramPostSchemaMigration.class);
+    private static final String COLUMN_TYPE_SQL = """
+            SELECT data_type
+            FROM information_schema.columns
+            WHERE table_schema = current_schema()
+              AND table_name = 'instagram_posts'
+              AND column_name = 'taken_at'
+            """;
+    private static final String COUNT_UNPARSEABLE_TAKEN_AT_SQL = """
+            SELECT count(*)
+            FROM instagram_posts
+            WHERE btrim(taken_at) <> ''
+              AND btrim(taken_at) !~ '^\\d{4}-\\d{2}-\\d{2}'
+            """;
+    // Values that do not start with a date would abort the whole ALTER, so they become NULL instead.
+    private static final String CONVERT_TAKEN_AT_SQL = """
+            ALTER TABLE instagram_posts
+            ALTER COLUMN taken_at TYPE timestamptz
+            USING CASE WHEN btrim(taken_at) ~ '^\\d{4}-\\d{2}-\\d{2}' THEN btrim(taken_at)::timestamptz END
+            """;
+    private static final String CREATE_TAKEN_AT_INDEX_SQL = """
+            CREATE INDEX IF NOT EXISTS instagram_posts_username_taken_at_idx
+            ON instagram_posts (username, taken_at DESC)
+            """;
+    // 'simple' keeps tokens unstemmed, which suits the mix of Korean and English captions.
+    private static final String ADD_CAPTION_TSV_SQL = """
+            ALTER TABLE instagram_posts
+            ADD COLUMN IF NOT EXISTS caption_tsv tsvector
+            GENERATED ALWAYS AS (to_tsvector('simple', coalesce(caption, ''))) STORED
+            """;
+    private static final String CREATE_CAPTION_TSV_INDEX_SQL = """
+            CREATE INDEX IF NOT EXISTS instagram_posts_caption_tsv_idx
+            ON instagram_posts USING gin (caption_tsv)
+            """;
+    private static final String CREATE_TRGM_EXTENSION_SQL = "CREATE EXTENSION IF NOT EXISTS pg_trgm";
+    private static final String CREATE_CAPTION_TRGM_INDEX_SQL = """
+            CREATE INDEX IF NOT EXISTS instagram_posts_caption_trgm_idx
+            ON instagram_posts USING gin (caption gin_trgm_ops)
+            """;
+
+    private final DataSource dataSource;
+
+    public InstagramPostSchemaMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    // Runs after Hibernate's schema update (ddl-auto never changes column types) and before requests are served.
+    // Range queries and ordering depend on taken_at being a timestamp, so a failed conversion stops startup.
+    @Override
+    public void afterPropertiesSet() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            String dataType = currentType(connection);
+            if (dataType != null && !dataType.startsWith("timestamp")) {
+                long nulled = countUnparseable(connection);
+                statement.execute(CONVERT_TAKEN_AT_SQL);
+                LOGGER.info(
+                        "Converted instagram_posts.taken_at from {} to timestamptz (nulledRows={})",
+                        dataType,
+                        nulled);
+            }
+            if (dataType != null) {
+                statement.execute(CREATE_TAKEN_AT_INDEX_SQL);
+            }
+        } catch (SQLException exception) {
+            throw new IllegalStateException("Failed to migrate instagram_posts.taken_at", exception);
+        }
+        migrateCaptionSearch();
+    }
+
+    private long countUnparseable(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(COUNT_UNPARSEABLE_TAKEN_AT_SQL);
+             ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    private void migrateCaptionSearch() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(ADD_CAPTION_TSV_SQL);
+            statement.execute(CREATE_CAPTION_TSV_INDEX_SQL);
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to create instagram_posts caption search column", exception);
+            return;
+        }
+        // pg_trgm may need elevated privileges; full-text search still works without it.
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TRGM_EXTENSION_SQL);
+            statement.execute(CREATE_CAPTION_TRGM_INDEX_SQL);
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to create instagram_posts caption trigram index", exception);
+        }
+    }
+
+    private String currentType(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(COLUMN_TYPE_SQL);
+             ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        }
+    }
+}
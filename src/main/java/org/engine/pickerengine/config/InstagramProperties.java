@@ -0,0 +1,48 @@
+package org.engine.pickerengine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// Fetch and HTTP settings for InstagramService, bound from instagram.* (other instagram.* keys belong to other beans).
+@ConfigurationProperties(prefix = "instagram")
+public record InstagramProperties(
+        @DefaultValue("") String sessionid,
+        @DefaultValue("") String sessionids,
+        @DefaultValue("https://www.instagram.com") String apiBaseUrl,
+        @DefaultValue("18") int maxPosts,
+        @DefaultValue DeepFetch deepFetch,
+        @DefaultValue IncrementalRefresh incrementalRefresh,
+        @DefaultValue Http http) {
+
+    public record DeepFetch(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("120") int maxPosts,
+            @DefaultValue("10") int maxPages,
+            @DefaultValue("365") long maxAgeDays) {
+    }
+
+    public record IncrementalRefresh(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("14") long recencyWindowDays) {
+    }
+
+    public record Http(
+            @DefaultValue("1000") long rateLimitMs,
+            @DefaultValue("1") int maxConcurrency,
+            @DefaultValue("2") int maxRetries,
+            @DefaultValue("30000") long backoffMs,
+            @DefaultValue("180000") long maxBackoffMs,
+            @DefaultValue CircuitBreaker circuitBreaker,
+            @DefaultValue("6") int sessionQuarantineThreshold,
+            @DefaultValue("1800000") long sessionQuarantineMaxMs,
+            @DefaultValue("0.3") double interactiveReservedFraction,
+            @DefaultValue("3") int interactiveWeight,
+            @DefaultValue("0") long ttlCacheMs) {
+    }
+
+    public record CircuitBreaker(
+            @DefaultValue("3") int threshold,
+            @DefaultValue("120000") long cooldownMs,
+            @DefaultValue("900000") long maxOpenMs) {
+    }
+}
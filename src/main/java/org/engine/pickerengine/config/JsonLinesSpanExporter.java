@@ -0,0 +1,102 @@
+package org.engine.pickerengine.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+class JsonLinesSpanExporter implements SpanExporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonLinesSpanExporter.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Path path;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private BufferedWriter writer;
+
+    JsonLinesSpanExporter(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        writeLock.lock();
+        try {
+            BufferedWriter out = openWriter();
+            for (SpanData span : spans) {
+                out.write(OBJECT_MAPPER.writeValueAsString(toJson(span)));
+                out.newLine();
+            }
+            out.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException exception) {
+            LOGGER.warn("Failed to export {} spans to {}", spans.size(), path, exception);
+            return CompletableResultCode.ofFailure();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        writeLock.lock();
+        try {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException exception) {
+            return CompletableResultCode.ofFailure();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private BufferedWriter openWriter() throws IOException {
+        if (writer == null) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            writer = Files.newBufferedWriter(
+                    path,
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        }
+        return writer;
+    }
+
+    private static ObjectNode toJson(SpanData span) {
+        ObjectNode node = OBJECT_MAPPER.createObjectNode();
+        node.put("traceId", span.getTraceId());
+        node.put("spanId", span.getSpanId());
+        node.put("parentSpanId", span.getParentSpanId());
+        node.put("name", span.getName());
+        node.put("kind", span.getKind().name());
+        node.put("startEpochNanos", span.getStartEpochNanos());
+        node.put("durationMicros", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000);
+        node.put("status", span.getStatus().getStatusCode().name());
+        ObjectNode attributes = node.putObject("attributes");
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), String.valueOf(value)));
+        return node;
+    }
+}
@@ -0,0 +1,65 @@
+package org.engine.pickerengine.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.engine.pickerengine.service.InstagramRequestDeadline;
+import org.engine.pickerengine.service.InstagramRequestLane;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class RequestDeadlineConfig implements WebMvcConfigurer {
+
+    private static final String DEADLINE_HEADER = "X-Request-Deadline-Ms";
+
+    private final long defaultBudgetMs;
+
+    public RequestDeadlineConfig(@Value("${instagram.interactive.deadline-ms:15000}") long defaultBudgetMs) {
+        this.defaultBudgetMs = defaultBudgetMs;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DeadlineInterceptor())
+            .addPathPatterns("/instagram/**");
+    }
+
+    private long resolveBudgetMs(HttpServletRequest request) {
+        String header = request.getHeader(DEADLINE_HEADER);
+        if (header == null || header.isBlank()) {
+            return defaultBudgetMs;
+        }
+        try {
+            long requested = Long.parseLong(header.trim());
+            return requested > 0 ? Math.min(requested, defaultBudgetMs) : defaultBudgetMs;
+        } catch (NumberFormatException ignored) {
+            return defaultBudgetMs;
+        }
+    }
+
+    private final class DeadlineInterceptor implements HandlerInterceptor {
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            // The lane is set even without a deadline so UI requests never fall into the background lane.
+            InstagramRequestLane.markInteractive();
+            if (defaultBudgetMs > 0) {
+                InstagramRequestDeadline.start(resolveBudgetMs(request));
+            }
+            return true;
+        }
+
+        @Override
+        public void afterCompletion(
+                HttpServletRequest request,
+                HttpServletResponse response,
+                Object handler,
+                Exception exception) {
+            InstagramRequestDeadline.clear();
+            InstagramRequestLane.clear();
+        }
+    }
+}
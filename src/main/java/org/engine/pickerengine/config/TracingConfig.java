@@ -0,0 +1,28 @@
+package org.engine.pickerengine.config;
+
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnExpression("!'${tracing.export.file:}'.isBlank()")
+    public SpanExporter jsonLinesSpanExporter(@Value("${tracing.export.file}") String file) {
+        return new JsonLinesSpanExporter(Path.of(file.trim()));
+    }
+
+    @Bean
+    @ConditionalOnExpression("!'${tracing.export.otlp-endpoint:}'.isBlank()")
+    public SpanExporter otlpSpanExporter(@Value("${tracing.export.otlp-endpoint}") String endpoint) {
+        return OtlpHttpSpanExporter.builder()
+                .setEndpoint(endpoint.trim())
+                .build();
+    }
+}
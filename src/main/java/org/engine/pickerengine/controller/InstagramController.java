@@ -1,5 +1,8 @@
 package org.engine.pickerengine.controller;
 
+import org.engine.pickerengine.dto.InstagramCaptionSearchPage;
+import org.engine.pickerengine.dto.InstagramCircuitBreakerState;
+import org.engine.pickerengine.dto.InstagramKeywordMatch;
 import org.engine.pickerengine.dto.InstagramKeywordPromptResponse;
 import org.engine.pickerengine.dto.InstagramKeywordRequest;
 import org.engine.pickerengine.dto.InstagramKeywordResponse;
@@ -13,21 +16,35 @@ import org.engine.pickerengine.dto.InstagramRequest;
 import org.engine.pickerengine.dto.InstagramSearchResponse;
 import org.engine.pickerengine.dto.InstagramSearchUser;
 import org.engine.pickerengine.dto.InstagramSearchUsersPage;
+import org.engine.pickerengine.dto.InstagramSessionHealth;
+import org.engine.pickerengine.dto.InstagramSnapshotPoint;
+import org.engine.pickerengine.service.InstagramArchiveReparseService;
+import org.engine.pickerengine.service.InstagramCaptionSearchService;
 import org.engine.pickerengine.service.InstagramDmPromptService;
 import org.engine.pickerengine.service.InstagramDmService;
+import org.engine.pickerengine.service.InstagramExportService;
+import org.engine.pickerengine.service.InstagramImportService;
 import org.engine.pickerengine.service.InstagramKeywordService;
 import org.engine.pickerengine.service.InstagramProfileInsightsService;
 import org.engine.pickerengine.service.InstagramPricePromptService;
 import org.engine.pickerengine.service.InstagramPriceService;
 import org.engine.pickerengine.service.InstagramService;
+import org.engine.pickerengine.service.InstagramSnapshotService;
 import org.engine.pickerengine.service.InstagramInfluencerSyncService;
 import org.engine.pickerengine.service.InstagramPromptService;
+import org.engine.pickerengine.service.InstagramSyncQueueService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import org.engine.pickerengine.dto.InstagramDmPromptRequest;
 import org.engine.pickerengine.dto.InstagramDmPromptResponse;
@@ -35,8 +52,13 @@ import org.engine.pickerengine.dto.InstagramDmKeywordsRequest;
 import org.engine.pickerengine.dto.InstagramDmRequest;
 import org.engine.pickerengine.dto.InstagramDmResponse;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -52,6 +74,12 @@ public class InstagramController {
     private final InstagramPricePromptService instagramPricePromptService;
     private final InstagramProfileInsightsService instagramProfileInsightsService;
     private final InstagramInfluencerSyncService instagramInfluencerSyncService;
+    private final InstagramSyncQueueService instagramSyncQueueService;
+    private final InstagramArchiveReparseService instagramArchiveReparseService;
+    private final InstagramSnapshotService instagramSnapshotService;
+    private final InstagramCaptionSearchService instagramCaptionSearchService;
+    private final InstagramExportService instagramExportService;
+    private final InstagramImportService instagramImportService;
 
     public InstagramController(
             InstagramService instagramService,
@@ -62,7 +90,13 @@ public class InstagramController {
             InstagramPriceService instagramPriceService,
             InstagramPricePromptService instagramPricePromptService,
             InstagramProfileInsightsService instagramProfileInsightsService,
-            InstagramInfluencerSyncService instagramInfluencerSyncService) {
+            InstagramInfluencerSyncService instagramInfluencerSyncService,
+            InstagramSyncQueueService instagramSyncQueueService,
+            InstagramArchiveReparseService instagramArchiveReparseService,
+            InstagramSnapshotService instagramSnapshotService,
+            InstagramCaptionSearchService instagramCaptionSearchService,
+            InstagramExportService instagramExportService,
+            InstagramImportService instagramImportService) {
         this.instagramService = instagramService;
         this.instagramKeywordService = instagramKeywordService;
         this.instagramPromptService = instagramPromptService;
@@ -72,20 +106,29 @@ public class InstagramController {
         this.instagramPricePromptService = instagramPricePromptService;
         this.instagramProfileInsightsService = instagramProfileInsightsService;
         this.instagramInfluencerSyncService = instagramInfluencerSyncService;
+        this.instagramSyncQueueService = instagramSyncQueueService;
+        this.instagramArchiveReparseService = instagramArchiveReparseService;
+        this.instagramSnapshotService = instagramSnapshotService;
+        this.instagramCaptionSearchService = instagramCaptionSearchService;
+        this.instagramExportService = instagramExportService;
+        this.instagramImportService = instagramImportService;
     }
 
     @PostMapping("/profiles")
     public List<InstagramProfile> getProfiles(@RequestBody InstagramRequest request) {
+        instagramSyncQueueService.recordDemand(request.userId());
         return instagramService.fetchProfiles(request.userId());
     }
 
     @PostMapping("/profile-details")
     public InstagramProfileWithPosts getProfileDetails(@RequestBody InstagramRequest request) {
+        instagramSyncQueueService.recordDemand(request.userId());
         return instagramService.fetchProfileWithPosts(request.userId());
     }
 
     @GetMapping("/profile-by-username")
     public InstagramProfileInsights getProfileByUsername(@RequestParam("username") String username) {
+        instagramSyncQueueService.recordDemand(username);
         return instagramProfileInsightsService.fetchInsights(username);
     }
 
@@ -112,8 +155,42 @@ public class InstagramController {
         return instagramInfluencerSyncService.getStatus();
     }
 
+    @PostMapping("/archive/reparse")
+    public Map<String, Object> reparseArchive() {
+        boolean started = instagramArchiveReparseService.triggerReparseAsync();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("started", started);
+        payload.put("status", instagramArchiveReparseService.getStatus());
+        return payload;
+    }
+
+    @GetMapping("/archive/reparse/status")
+    public InstagramArchiveReparseService.ReparseStatus getArchiveReparseStatus() {
+        return instagramArchiveReparseService.getStatus();
+    }
+
+    @GetMapping("/snapshots")
+    public List<InstagramSnapshotPoint> getSnapshots(
+            @RequestParam("username") String username,
+            @RequestParam(value = "granularity", defaultValue = "day") String granularity,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to) {
+        return instagramSnapshotService.findSeries(username, granularity, from, to);
+    }
+
+    @GetMapping("/sessions/health")
+    public List<InstagramSessionHealth> getSessionHealth() {
+        return instagramService.getSessionHealth();
+    }
+
+    @GetMapping("/http/circuit-breakers")
+    public List<InstagramCircuitBreakerState> getCircuitBreakers() {
+        return instagramService.getCircuitBreakers();
+    }
+
     @PostMapping("/profile-cache")
     public InstagramProfileWithPosts getCachedProfileDetails(@RequestBody InstagramRequest request) {
+        instagramSyncQueueService.recordDemand(request.userId());
         return instagramService.fetchCachedProfileWithPosts(request.userId());
     }
 
@@ -124,8 +201,85 @@ public class InstagramController {
         return instagramService.searchKeywordUsersExpanded(query, pages);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "source", defaultValue = "influencer") String source,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "tier", required = false) String tier,
+            @RequestParam(value = "minFollowers", required = false) Long minFollowers,
+            @RequestParam(value = "maxFollowers", required = false) Long maxFollowers,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "updatedSince", required = false) String updatedSince) {
+        InstagramExportService.Format resolved = InstagramExportService.Format.parse(format);
+        InstagramExportService.ExportFilter filter;
+        try {
+            filter = InstagramExportService.ExportFilter.of(
+                    source,
+                    tier,
+                    minFollowers,
+                    maxFollowers,
+                    category,
+                    updatedSince);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage(), exception);
+        }
+        StreamingResponseBody body = output -> instagramExportService.export(filter, resolved, output);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, resolved.contentType())
+                .header(
+                        HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"instagram-" + filter.source().name().toLowerCase(Locale.ROOT)
+                                + "." + resolved.extension() + "\"")
+                .body(body);
+    }
+
+    @PostMapping("/import")
+    public InstagramImportService.ImportResult importCreators(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "usernameColumn", required = false) String usernameColumn,
+            @RequestParam(value = "tier", required = false) String tier) throws IOException {
+        String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+        boolean sqlite = format == null || format.isBlank()
+                ? filename.endsWith(".db") || filename.endsWith(".sqlite") || filename.endsWith(".sqlite3")
+                : format.trim().equalsIgnoreCase("sqlite");
+        if (!sqlite) {
+            try (InputStream input = file.getInputStream()) {
+                return instagramImportService.importCsv(input, usernameColumn, tier);
+            } catch (IllegalArgumentException exception) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage(), exception);
+            }
+        }
+        // SQLite needs a real file to open.
+        Path temp = Files.createTempFile("instagram-import-", ".db");
+        try {
+            file.transferTo(temp);
+            return instagramImportService.importSqlite(temp, tier);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @GetMapping("/captions/search")
+    public InstagramCaptionSearchPage searchCaptions(
+            @RequestParam("q") String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return instagramCaptionSearchService.search(query, page, size);
+    }
+
+    @GetMapping("/keywords/search")
+    public List<InstagramKeywordMatch> searchCreatorsByKeywords(
+            @RequestParam("q") List<String> keywords,
+            @RequestParam(value = "match", defaultValue = "any") String match,
+            @RequestParam(value = "version", required = false) String version,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return instagramKeywordService.searchCreators(keywords, match, version, limit);
+    }
+
     @PostMapping("/extract-keywords")
     public InstagramKeywordResponse getKeywords(@RequestBody InstagramKeywordRequest request) {
+        instagramSyncQueueService.recordDemand(request.userId());
         return instagramKeywordService.extractKeywords(
                 request.userId(),
                 request.version(),
@@ -135,6 +289,7 @@ public class InstagramController {
 
     @PostMapping("/generate-dm")
     public InstagramDmResponse generateDm(@RequestBody InstagramDmRequest request) {
+        instagramSyncQueueService.recordDemand(request.userId());
         return instagramDmService.generateDm(
                 request.userId(),
                 request.version(),
@@ -0,0 +1,10 @@
+package org.engine.pickerengine.dto;
+
+public record InstagramCaptionMatch(
+        String username,
+        String postId,
+        String permalink,
+        String snippet,
+        String takenAt
+) {
+}
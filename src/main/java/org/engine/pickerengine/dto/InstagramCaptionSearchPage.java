@@ -0,0 +1,12 @@
+package org.engine.pickerengine.dto;
+
+import java.util.List;
+
+public record InstagramCaptionSearchPage(
+        String query,
+        List<InstagramCaptionMatch> matches,
+        int page,
+        int size,
+        boolean hasMore
+) {
+}
@@ -0,0 +1,12 @@
+package org.engine.pickerengine.dto;
+
+public record InstagramCircuitBreakerState(
+        String endpoint,
+        String state,
+        int consecutiveFailures,
+        int reopenCount,
+        String openUntil,
+        String lastTransitionAt,
+        long transitions
+) {
+}
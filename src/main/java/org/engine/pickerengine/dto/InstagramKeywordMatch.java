@@ -0,0 +1,12 @@
+package org.engine.pickerengine.dto;
+
+import java.util.List;
+
+public record InstagramKeywordMatch(
+        String username,
+        String fullName,
+        Integer followerCount,
+        int matchCount,
+        List<String> matchedKeywords
+) {
+}
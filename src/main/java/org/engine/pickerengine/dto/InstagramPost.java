@@ -1,7 +1,12 @@
 package org.engine.pickerengine.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
 public record InstagramPost(
         @JsonProperty("post_id") String postId,
         String shortcode,
@@ -13,7 +18,17 @@ public record InstagramPost(
         @JsonProperty("video_view_count") Integer videoViewCount,
         @JsonProperty("like_count") Integer likeCount,
         @JsonProperty("comment_count") Integer commentCount,
-        @JsonProperty("taken_at") String takenAt,
+        @JsonIgnore long takenAtEpochSeconds,
         @JsonProperty("media_type") String mediaType
 ) {
+
+    @JsonProperty("taken_at")
+    public String takenAt() {
+        if (takenAtEpochSeconds <= 0) {
+            return null;
+        }
+        return Instant.ofEpochSecond(takenAtEpochSeconds)
+                .atOffset(ZoneOffset.UTC)
+                .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+    }
 }
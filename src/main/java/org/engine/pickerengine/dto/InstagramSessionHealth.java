@@ -0,0 +1,11 @@
+package org.engine.pickerengine.dto;
+
+public record InstagramSessionHealth(
+        String id,
+        String state,
+        int consecutive429,
+        int quarantines,
+        int inFlight,
+        String blockedUntil
+) {
+}
@@ -0,0 +1,17 @@
+package org.engine.pickerengine.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record InstagramSnapshotPoint(
+        String timestamp,
+        int samples,
+        Integer followers,
+        @JsonProperty("followers_min") Integer followersMin,
+        @JsonProperty("followers_max") Integer followersMax,
+        Integer following,
+        @JsonProperty("media_count") Integer mediaCount,
+        @JsonProperty("recent_avg_views") Double recentAvgViews,
+        @JsonProperty("recent_avg_likes") Double recentAvgLikes,
+        @JsonProperty("recent_avg_comments") Double recentAvgComments
+) {
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 
 @Entity
@@ -46,7 +47,7 @@ public class InstagramPostEntity {
     private Integer commentCount;
 
     @Column(name = "taken_at")
-    private String takenAt;
+    private Instant takenAt;
 
     @Column(name = "media_type")
     private String mediaType;
@@ -149,11 +150,11 @@ public class InstagramPostEntity {
         this.commentCount = commentCount;
     }
 
-    public String getTakenAt() {
+    public Instant getTakenAt() {
         return takenAt;
     }
 
-    public void setTakenAt(String takenAt) {
+    public void setTakenAt(Instant takenAt) {
         this.takenAt = takenAt;
     }
 
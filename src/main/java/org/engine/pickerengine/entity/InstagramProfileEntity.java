@@ -48,6 +48,9 @@ public class InstagramProfileEntity {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Column(name = "next_refresh_at")
+    private LocalDateTime nextRefreshAt;
+
     protected InstagramProfileEntity() {
     }
 
@@ -150,4 +153,12 @@ public class InstagramProfileEntity {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public LocalDateTime getNextRefreshAt() {
+        return nextRefreshAt;
+    }
+
+    public void setNextRefreshAt(LocalDateTime nextRefreshAt) {
+        this.nextRefreshAt = nextRefreshAt;
+    }
 }
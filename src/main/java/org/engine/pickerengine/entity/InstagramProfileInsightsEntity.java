@@ -0,0 +1,160 @@
+package org.engine.pickerengine.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "instagram_profile_insights")
+public class InstagramProfileInsightsEntity {
+
+    @Id
+    @Column(name = "username", nullable = false, length = 100)
+    private String username;
+
+    @Column(name = "version", nullable = false)
+    private int version;
+
+    @Column(name = "email", columnDefinition = "TEXT")
+    private String email;
+
+    @Column(name = "has_links")
+    private Boolean hasLinks;
+
+    @Column(name = "upload_freq")
+    private Double uploadFreq;
+
+    @Column(name = "recent_avg_views")
+    private Double recentAvgViews;
+
+    @Column(name = "pinned_avg_views")
+    private Double pinnedAvgViews;
+
+    @Column(name = "recent18_avg_views")
+    private Double recent18AvgViews;
+
+    @Column(name = "recent_ads", columnDefinition = "TEXT")
+    private String recentAds;
+
+    @Column(name = "contact_method")
+    private String contactMethod;
+
+    @Column(name = "recent_avg_comments")
+    private Double recentAvgComments;
+
+    @Column(name = "recent_avg_likes")
+    private Double recentAvgLikes;
+
+    @Column(name = "computed_at")
+    private LocalDateTime computedAt;
+
+    protected InstagramProfileInsightsEntity() {
+    }
+
+    public InstagramProfileInsightsEntity(String username) {
+        this.username = username;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public Boolean getHasLinks() {
+        return hasLinks;
+    }
+
+    public void setHasLinks(Boolean hasLinks) {
+        this.hasLinks = hasLinks;
+    }
+
+    public Double getUploadFreq() {
+        return uploadFreq;
+    }
+
+    public void setUploadFreq(Double uploadFreq) {
+        this.uploadFreq = uploadFreq;
+    }
+
+    public Double getRecentAvgViews() {
+        return recentAvgViews;
+    }
+
+    public void setRecentAvgViews(Double recentAvgViews) {
+        this.recentAvgViews = recentAvgViews;
+    }
+
+    public Double getPinnedAvgViews() {
+        return pinnedAvgViews;
+    }
+
+    public void setPinnedAvgViews(Double pinnedAvgViews) {
+        this.pinnedAvgViews = pinnedAvgViews;
+    }
+
+    public Double getRecent18AvgViews() {
+        return recent18AvgViews;
+    }
+
+    public void setRecent18AvgViews(Double recent18AvgViews) {
+        this.recent18AvgViews = recent18AvgViews;
+    }
+
+    public String getRecentAds() {
+        return recentAds;
+    }
+
+    public void setRecentAds(String recentAds) {
+        this.recentAds = recentAds;
+    }
+
+    public String getContactMethod() {
+        return contactMethod;
+    }
+
+    public void setContactMethod(String contactMethod) {
+        this.contactMethod = contactMethod;
+    }
+
+    public Double getRecentAvgComments() {
+        return recentAvgComments;
+    }
+
+    public void setRecentAvgComments(Double recentAvgComments) {
+        this.recentAvgComments = recentAvgComments;
+    }
+
+    public Double getRecentAvgLikes() {
+        return recentAvgLikes;
+    }
+
+    public void setRecentAvgLikes(Double recentAvgLikes) {
+        this.recentAvgLikes = recentAvgLikes;
+    }
+
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+
+    public void setComputedAt(LocalDateTime computedAt) {
+        this.computedAt = computedAt;
+    }
+}
@@ -2,6 +2,8 @@ package org.engine.pickerengine.repository;
 
 import org.engine.pickerengine.entity.InstagramPostEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -9,5 +11,10 @@ public interface InstagramPostRepository extends JpaRepository<InstagramPostEnti
 
     List<InstagramPostEntity> findByUsername(String username);
 
+    List<InstagramPostEntity> findByUsernameOrderByTakenAtDesc(String username);
+
+    @Query("select p.postId from InstagramPostEntity p where p.username = :username")
+    List<String> findPostIdsByUsername(@Param("username") String username);
+
     void deleteByUsername(String username);
 }
@@ -0,0 +1,20 @@
+package org.engine.pickerengine.repository;
+
+import org.engine.pickerengine.entity.InstagramProfileInsightsEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface InstagramProfileInsightsRepository extends JpaRepository<InstagramProfileInsightsEntity, String> {
+
+    @Query(value = """
+            SELECT p.username
+            FROM instagram_profiles p
+            LEFT JOIN instagram_profile_insights i ON i.username = p.username
+            WHERE i.username IS NULL OR i.version < :version
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<String> findUsernamesNeedingInsights(@Param("version") int version, @Param("limit") int limit);
+}
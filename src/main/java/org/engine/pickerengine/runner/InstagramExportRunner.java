@@ -0,0 +1,67 @@
+package org.engine.pickerengine.runner;
+
+import org.engine.pickerengine.service.InstagramExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Component
+public class InstagramExportRunner implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramExportRunner.class);
+
+    private final InstagramExportService exportService;
+    private final ConfigurableApplicationContext context;
+    private final String output;
+    private final InstagramExportService.Format format;
+    private final InstagramExportService.ExportFilter filter;
+
+    public InstagramExportRunner(
+            InstagramExportService exportService,
+            ConfigurableApplicationContext context,
+            @Value("${instagram.export.output:}") String output,
+            @Value("${instagram.export.format:csv}") String format,
+            @Value("${instagram.export.source:influencer}") String source,
+            @Value("${instagram.export.tier:}") String tier,
+            @Value("${instagram.export.min-followers:#{null}}") Long minFollowers,
+            @Value("${instagram.export.max-followers:#{null}}") Long maxFollowers,
+            @Value("${instagram.export.category:}") String category,
+            @Value("${instagram.export.updated-since:}") String updatedSince) {
+        this.exportService = exportService;
+        this.context = context;
+        this.output = output == null ? "" : output.trim();
+        this.format = InstagramExportService.Format.parse(format);
+        this.filter = InstagramExportService.ExportFilter.of(
+                source,
+                tier,
+                minFollowers,
+                maxFollowers,
+                category,
+                updatedSince);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (output.isEmpty()) {
+            return;
+        }
+        long rows;
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(Path.of(output)))) {
+            rows = exportService.export(filter, format, stream);
+        }
+        LOGGER.info("Instagram export done (source={}, rows={}, output={})", filter.source(), rows, output);
+        int code = SpringApplication.exit(context, () -> 0);
+        System.exit(code);
+    }
+}
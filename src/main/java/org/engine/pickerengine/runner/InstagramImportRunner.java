@@ -0,0 +1,68 @@
+package org.engine.pickerengine.runner;
+
+import org.engine.pickerengine.service.InstagramImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+@Component
+public class InstagramImportRunner implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramImportRunner.class);
+
+    private final InstagramImportService importService;
+    private final ConfigurableApplicationContext context;
+    private final String path;
+    private final String format;
+    private final String usernameColumn;
+    private final String tier;
+
+    public InstagramImportRunner(
+            InstagramImportService importService,
+            ConfigurableApplicationContext context,
+            @Value("${instagram.import.path:}") String path,
+            @Value("${instagram.import.format:}") String format,
+            @Value("${instagram.import.username-column:}") String usernameColumn,
+            @Value("${instagram.import.tier:}") String tier) {
+        this.importService = importService;
+        this.context = context;
+        this.path = path == null ? "" : path.trim();
+        this.format = format == null ? "" : format.trim().toLowerCase(Locale.ROOT);
+        this.usernameColumn = usernameColumn;
+        this.tier = tier;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (path.isEmpty()) {
+            return;
+        }
+        Path file = Path.of(path);
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean sqlite = format.isEmpty()
+                ? name.endsWith(".db") || name.endsWith(".sqlite") || name.endsWith(".sqlite3")
+                : format.equals("sqlite");
+        InstagramImportService.ImportResult result;
+        if (sqlite) {
+            result = importService.importSqlite(file, tier);
+        } else {
+            try (InputStream input = Files.newInputStream(file)) {
+                result = importService.importCsv(input, usernameColumn, tier);
+            }
+        }
+        LOGGER.info("Instagram import run-once done ({})", result);
+        int code = SpringApplication.exit(context, () -> 0);
+        System.exit(code);
+    }
+}
@@ -1,6 +1,8 @@
 package org.engine.pickerengine.scheduler;
 
 import org.engine.pickerengine.service.InstagramInfluencerSyncService;
+import org.engine.pickerengine.service.InstagramSyncLeaseService;
+import org.engine.pickerengine.service.InstagramSyncQueueService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,15 +15,39 @@ public class InstagramInfluencerSyncScheduler {
     private static final Logger LOGGER = LoggerFactory.getLogger(InstagramInfluencerSyncScheduler.class);
 
     private final InstagramInfluencerSyncService syncService;
+    private final InstagramSyncLeaseService leaseService;
+    private final InstagramSyncQueueService queueService;
     private final boolean enabled;
 
     public InstagramInfluencerSyncScheduler(
             InstagramInfluencerSyncService syncService,
+            InstagramSyncLeaseService leaseService,
+            InstagramSyncQueueService queueService,
             @Value("${instagram.influencer-sync.enabled:true}") boolean enabled) {
         this.syncService = syncService;
+        this.leaseService = leaseService;
+        this.queueService = queueService;
         this.enabled = enabled;
     }
 
+    @Scheduled(
+            fixedDelayString = "${instagram.influencer-sync.lease-heartbeat-ms:30000}",
+            initialDelayString = "${instagram.influencer-sync.initial-delay-ms:10000}")
+    public void heartbeatLeases() {
+        if (!enabled) {
+            return;
+        }
+        leaseService.heartbeat();
+    }
+
+    // Runs even when sync is disabled so request demand does not accumulate in memory.
+    @Scheduled(
+            fixedDelayString = "${instagram.influencer-sync.demand-flush-ms:60000}",
+            initialDelayString = "${instagram.influencer-sync.initial-delay-ms:10000}")
+    public void flushDemand() {
+        queueService.flushPendingDemand();
+    }
+
     @Scheduled(
             fixedDelayString = "${instagram.influencer-sync.delay-ms:60000}",
             initialDelayString = "${instagram.influencer-sync.initial-delay-ms:10000}")
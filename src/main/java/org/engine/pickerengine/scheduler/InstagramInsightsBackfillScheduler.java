@@ -0,0 +1,34 @@
+package org.engine.pickerengine.scheduler;
+
+import org.engine.pickerengine.service.InstagramCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class InstagramInsightsBackfillScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramInsightsBackfillScheduler.class);
+
+    private final InstagramCacheService cacheService;
+    private final int batchSize;
+
+    public InstagramInsightsBackfillScheduler(
+            InstagramCacheService cacheService,
+            @Value("${instagram.insights.backfill-batch-size:200}") int batchSize) {
+        this.cacheService = cacheService;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${instagram.insights.backfill-ms:300000}",
+            initialDelayString = "${instagram.insights.backfill-initial-delay-ms:60000}")
+    public void backfillInsights() {
+        int computed = cacheService.backfillInsights(batchSize);
+        if (computed > 0) {
+            LOGGER.info("Instagram insights backfilled (profiles={})", computed);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.engine.pickerengine.scheduler;
+
+import org.engine.pickerengine.service.InstagramModelUsageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class InstagramModelUsageScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramModelUsageScheduler.class);
+
+    private final InstagramModelUsageService usageService;
+
+    public InstagramModelUsageScheduler(InstagramModelUsageService usageService) {
+        this.usageService = usageService;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${openai.usage.flush-ms:60000}",
+            initialDelayString = "${openai.usage.flush-ms:60000}")
+    public void flushUsage() {
+        int rows = usageService.flush();
+        if (rows > 0) {
+            LOGGER.info("OpenAI usage flushed (rows={})", rows);
+        }
+    }
+}
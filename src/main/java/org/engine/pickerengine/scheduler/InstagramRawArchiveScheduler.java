@@ -0,0 +1,22 @@
+package org.engine.pickerengine.scheduler;
+
+import org.engine.pickerengine.service.InstagramRawArchiveService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class InstagramRawArchiveScheduler {
+
+    private final InstagramRawArchiveService archiveService;
+
+    public InstagramRawArchiveScheduler(InstagramRawArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${instagram.archive.flush-ms:1000}",
+            initialDelayString = "${instagram.archive.flush-ms:1000}")
+    public void flushArchive() {
+        archiveService.flushUnsynced();
+    }
+}
@@ -0,0 +1,37 @@
+package org.engine.pickerengine.scheduler;
+
+import org.engine.pickerengine.service.InstagramSnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class InstagramSnapshotScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramSnapshotScheduler.class);
+
+    private final InstagramSnapshotService snapshotService;
+
+    public InstagramSnapshotScheduler(InstagramSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${instagram.snapshots.flush-ms:10000}",
+            initialDelayString = "${instagram.snapshots.flush-initial-delay-ms:10000}")
+    public void flushSnapshots() {
+        snapshotService.flush();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${instagram.snapshots.rollup-ms:900000}",
+            initialDelayString = "${instagram.snapshots.rollup-initial-delay-ms:120000}")
+    public void rollupSnapshots() {
+        snapshotService.flush();
+        int buckets = snapshotService.rollup();
+        if (buckets > 0) {
+            LOGGER.info("Instagram snapshot rollup refreshed (buckets={})", buckets);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.engine.pickerengine.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.engine.pickerengine.dto.InstagramPost;
+import org.engine.pickerengine.dto.InstagramProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public class InstagramArchiveReparseService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramArchiveReparseService.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final InstagramRawArchiveService archiveService;
+    private final InstagramCacheService cacheService;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong lastRunStarted = new AtomicLong(0);
+    private final AtomicLong lastRunFinished = new AtomicLong(0);
+    private final AtomicInteger lastRunProfiles = new AtomicInteger(0);
+    private final AtomicInteger lastRunPosts = new AtomicInteger(0);
+    private final AtomicInteger lastRunFailed = new AtomicInteger(0);
+    private final AtomicReference<String> lastError = new AtomicReference<>();
+
+    public InstagramArchiveReparseService(
+            InstagramRawArchiveService archiveService,
+            InstagramCacheService cacheService) {
+        this.archiveService = archiveService;
+        this.cacheService = cacheService;
+    }
+
+    public boolean triggerReparseAsync() {
+        if (!archiveService.isEnabled() || !running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("instagram-archive-reparse").start(this::reparseInternal);
+        return true;
+    }
+
+    public ReparseStatus getStatus() {
+        return new ReparseStatus(
+                archiveService.isEnabled(),
+                running.get(),
+                formatEpochMillis(lastRunStarted.get()),
+                formatEpochMillis(lastRunFinished.get()),
+                lastRunProfiles.get(),
+                lastRunPosts.get(),
+                lastRunFailed.get(),
+                lastError.get());
+    }
+
+    private void reparseInternal() {
+        lastRunStarted.set(System.currentTimeMillis());
+        lastRunFinished.set(0);
+        lastRunProfiles.set(0);
+        lastRunPosts.set(0);
+        lastRunFailed.set(0);
+        lastError.set(null);
+        try {
+            for (String username : archiveService.listUsernames()) {
+                try {
+                    int posts = reparseUsername(username);
+                    if (posts >= 0) {
+                        lastRunProfiles.incrementAndGet();
+                        lastRunPosts.addAndGet(posts);
+                    }
+                } catch (Exception exception) {
+                    lastRunFailed.incrementAndGet();
+                    LOGGER.warn("Failed to reparse archived instagram responses for {}", username, exception);
+                }
+            }
+        } catch (Exception exception) {
+            lastError.set(exception.getMessage());
+            LOGGER.warn("Instagram archive reparse failed", exception);
+        } finally {
+            lastRunFinished.set(System.currentTimeMillis());
+            running.set(false);
+        }
+    }
+
+    int reparseUsername(String username) throws Exception {
+        List<InstagramRawArchiveService.ArchivedResponse> responses = archiveService.findResponses(username);
+        InstagramProfile profile = null;
+        Instant profileFetchedAt = null;
+        Map<String, InstagramPost> postsById = new LinkedHashMap<>();
+        Set<String> roundSeen = new HashSet<>();
+        long roundWindowStart = Long.MAX_VALUE;
+        // Responses come newest first; walk oldest first so later fetches overwrite post counts.
+        // Each profile response starts a fetch round, and the feed pages after it belong to that round.
+        for (int i = responses.size() - 1; i >= 0; i--) {
+            InstagramRawArchiveService.ArchivedResponse response = responses.get(i);
+            JsonNode root = OBJECT_MAPPER.readTree(response.body());
+            if (InstagramRawArchiveService.KIND_PROFILE.equals(response.kind())) {
+                pruneMissing(postsById, roundSeen, roundWindowStart);
+                roundSeen.clear();
+                roundWindowStart = Long.MAX_VALUE;
+                JsonNode user = InstagramService.extractUserNode(root);
+                if (user != null && !user.isNull()) {
+                    profile = InstagramService.buildProfile(user, username);
+                    profileFetchedAt = response.fetchedAt();
+                }
+                continue;
+            }
+            JsonNode items = root.path("items");
+            if (!items.isArray()) {
+                continue;
+            }
+            for (JsonNode item : items) {
+                InstagramPost post = InstagramService.parsePost(item);
+                if (post == null) {
+                    continue;
+                }
+                postsById.put(post.postId(), post);
+                roundSeen.add(post.postId());
+                if (!InstagramService.isPinned(item) && post.takenAtEpochSeconds() > 0) {
+                    roundWindowStart = Math.min(roundWindowStart, post.takenAtEpochSeconds());
+                }
+            }
+        }
+        pruneMissing(postsById, roundSeen, roundWindowStart);
+        if (profile == null) {
+            return -1;
+        }
+        List<InstagramPost> posts = new ArrayList<>(postsById.values());
+        posts.sort(Comparator.comparingLong(InstagramPost::takenAtEpochSeconds).reversed());
+        cacheService.rebuildProfileWithPosts(
+                profile,
+                posts,
+                LocalDateTime.ofInstant(profileFetchedAt, ZoneId.systemDefault()));
+        return posts.size();
+    }
+
+    // Same rule as InstagramCacheService.reconcilePosts: a post inside the span a round's feed pages
+    // covered but absent from them was deleted or archived, so earlier rounds must not resurrect it.
+    private static void pruneMissing(Map<String, InstagramPost> postsById, Set<String> seen, long windowStart) {
+        if (windowStart == Long.MAX_VALUE) {
+            return;
+        }
+        postsById.values().removeIf(post -> post.takenAtEpochSeconds() >= windowStart
+                && !seen.contains(post.postId()));
+    }
+
+    private String formatEpochMillis(long value) {
+        if (value <= 0) {
+            return null;
+        }
+        return Instant.ofEpochMilli(value).toString();
+    }
+
+    public record ReparseStatus(
+            boolean archiveEnabled,
+            boolean running,
+            String lastRunStartedAt,
+            String lastRunFinishedAt,
+            int lastRunProfiles,
+            int lastRunPosts,
+            int lastRunFailed,
+            String lastError) {
+    }
+}
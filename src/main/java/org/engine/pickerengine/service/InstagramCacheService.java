@@ -4,58 +4,362 @@ import org.engine.pickerengine.dto.InstagramPost;
 import org.engine.pickerengine.dto.InstagramProfile;
 import org.engine.pickerengine.dto.InstagramProfileWithPosts;
 import org.engine.pickerengine.entity.InstagramPostEntity;
+import org.engine.pickerengine.entity.InstagramProfileInsightsEntity;
 import org.engine.pickerengine.entity.InstagramProfileEntity;
 import org.engine.pickerengine.repository.InstagramPostRepository;
+import org.engine.pickerengine.repository.InstagramProfileInsightsRepository;
 import org.engine.pickerengine.repository.InstagramProfileRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class InstagramCacheService {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() {
+    };
+
     private final InstagramProfileRepository profileRepository;
     private final InstagramPostRepository postRepository;
+    private final InstagramProfileInsightsRepository insightsRepository;
+    private final InstagramSnapshotService snapshotService;
+    private final long refreshMinIntervalHours;
+    private final long refreshMaxIntervalHours;
+    private final long unscheduledMaxAgeHours;
+    private final int maxRetainedPosts;
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
 
     public InstagramCacheService(
             InstagramProfileRepository profileRepository,
-            InstagramPostRepository postRepository) {
+            InstagramPostRepository postRepository,
+            InstagramProfileInsightsRepository insightsRepository,
+            InstagramSnapshotService snapshotService,
+            @Value("${instagram.refresh.min-interval-hours:12}") long refreshMinIntervalHours,
+            @Value("${instagram.refresh.max-interval-hours:4320}") long refreshMaxIntervalHours,
+            @Value("${instagram.refresh.unscheduled-max-age-hours:4320}") long unscheduledMaxAgeHours,
+            @Value("${instagram.posts.max-retained:200}") int maxRetainedPosts,
+            MeterRegistry meterRegistry,
+            OpenTelemetry openTelemetry) {
         this.profileRepository = profileRepository;
         this.postRepository = postRepository;
+        this.insightsRepository = insightsRepository;
+        this.snapshotService = snapshotService;
+        this.refreshMinIntervalHours = Math.max(1, refreshMinIntervalHours);
+        this.refreshMaxIntervalHours = Math.max(this.refreshMinIntervalHours, refreshMaxIntervalHours);
+        this.unscheduledMaxAgeHours = Math.max(1, unscheduledMaxAgeHours);
+        this.maxRetainedPosts = Math.max(1, maxRetainedPosts);
+        this.meterRegistry = meterRegistry;
+        this.tracer = InstagramTracing.tracer(openTelemetry);
     }
 
-    public Optional<InstagramProfileWithPosts> findFreshProfile(String username, LocalDateTime threshold) {
-        return profileRepository.findById(username)
-                .filter(profile -> profile.getUpdatedAt() != null && profile.getUpdatedAt().isAfter(threshold))
-                .map(profile -> toProfileWithPosts(profile, postRepository.findByUsername(username)));
+    public Optional<InstagramProfileWithPosts> findFreshProfile(String username) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<InstagramProfileWithPosts> fresh = InstagramTracing.inSpan(
+                tracer,
+                "instagram.cache.find_fresh_profile",
+                () -> profileRepository.findById(username)
+                        .filter(profile -> isFresh(profile, now))
+                        .map(profile -> toProfileWithPosts(
+                                profile,
+                                postRepository.findByUsernameOrderByTakenAtDesc(username))));
+        meterRegistry.counter("instagram.cache.requests", "cache", "profile", "result", fresh.isPresent() ? "hit" : "miss")
+                .increment();
+        return fresh;
     }
 
     public Optional<InstagramProfileWithPosts> findProfile(String username) {
-        return profileRepository.findById(username)
-                .map(profile -> toProfileWithPosts(profile, postRepository.findByUsername(username)));
+        return InstagramTracing.inSpan(tracer, "instagram.cache.find_profile", () -> profileRepository.findById(username)
+                .map(profile -> toProfileWithPosts(profile, postRepository.findByUsernameOrderByTakenAtDesc(username))));
+    }
+
+    public Set<String> findPostIds(String username) {
+        return InstagramTracing.inSpan(
+                tracer,
+                "instagram.cache.find_post_ids",
+                () -> new HashSet<>(postRepository.findPostIdsByUsername(username)));
+    }
+
+    @Transactional
+    public void saveProfile(InstagramProfile profile) {
+        LocalDateTime now = LocalDateTime.now();
+        InstagramProfileEntity previous = profileRepository.findById(profile.username()).orElse(null);
+        InstagramProfileEntity entity = toEntity(profile);
+        entity.setUpdatedAt(now);
+        List<InstagramPost> posts = toPostDtos(postRepository.findByUsernameOrderByTakenAtDesc(profile.username()));
+        entity.setNextRefreshAt(computeNextRefreshAt(previous, profile, takenAtEpochSeconds(posts), now));
+        profileRepository.save(entity);
+        recordSnapshot(profile, saveInsights(profile.username(), profile, posts, now), now);
+    }
+
+    @Transactional
+    public void savePosts(String username, List<InstagramPost> posts) {
+        if (posts == null || posts.isEmpty()) {
+            return;
+        }
+        List<InstagramPostEntity> postEntities = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (InstagramPost post : posts) {
+            InstagramPostEntity postEntity = toEntity(username, post);
+            postEntity.setUpdatedAt(now);
+            postEntities.add(postEntity);
+        }
+        postRepository.saveAll(postEntities);
+    }
+
+    @Transactional
+    public void updatePostCounts(List<InstagramPost> posts) {
+        if (posts == null || posts.isEmpty()) {
+            return;
+        }
+        Map<String, InstagramPost> byId = new LinkedHashMap<>();
+        for (InstagramPost post : posts) {
+            byId.put(post.postId(), post);
+        }
+        List<InstagramPostEntity> entities = postRepository.findAllById(byId.keySet());
+        LocalDateTime now = LocalDateTime.now();
+        for (InstagramPostEntity entity : entities) {
+            InstagramPost post = byId.get(entity.getPostId());
+            entity.setVideoViewCount(post.videoViewCount());
+            entity.setLikeCount(post.likeCount());
+            entity.setCommentCount(post.commentCount());
+            entity.setUpdatedAt(now);
+        }
+        postRepository.saveAll(entities);
+    }
+
+    // Drops cached posts the feed no longer returns inside the window it covered (deleted or archived),
+    // then trims the oldest posts beyond the retention cap.
+    @Transactional
+    public int reconcilePosts(String username, Set<String> seenPostIds, Instant windowStart) {
+        List<InstagramPostEntity> cached = postRepository.findByUsernameOrderByTakenAtDesc(username);
+        List<InstagramPostEntity> removed = new ArrayList<>();
+        int retained = 0;
+        for (InstagramPostEntity entity : cached) {
+            boolean missing = windowStart != null
+                    && entity.getTakenAt() != null
+                    && !entity.getTakenAt().isBefore(windowStart)
+                    && !seenPostIds.contains(entity.getPostId());
+            if (missing || retained >= maxRetainedPosts) {
+                removed.add(entity);
+            } else {
+                retained += 1;
+            }
+        }
+        if (!removed.isEmpty()) {
+            postRepository.deleteAll(removed);
+        }
+        return removed.size();
     }
 
     @Transactional
     public InstagramProfileWithPosts saveProfileWithPosts(InstagramProfile profile, List<InstagramPost> posts) {
+        return saveProfileWithPosts(profile, posts, LocalDateTime.now());
+    }
+
+    @Transactional
+    public InstagramProfileWithPosts saveProfileWithPosts(
+            InstagramProfile profile,
+            List<InstagramPost> posts,
+            LocalDateTime now) {
+        String username = profile.username();
+        InstagramProfileEntity previous = profileRepository.findById(username).orElse(null);
+        InstagramProfileEntity entity = toEntity(profile);
+        entity.setUpdatedAt(now);
+        entity.setNextRefreshAt(computeNextRefreshAt(previous, profile, takenAtEpochSeconds(posts), now));
+        profileRepository.save(entity);
+        List<InstagramPostEntity> postEntities = replacePosts(username, posts, now);
+        recordSnapshot(profile, saveInsights(username, profile, posts, now), now);
+        return toProfileWithPosts(entity, postEntities);
+    }
+
+    // Rebuilds cache rows from already-fetched data (archive reparse): keeps the existing
+    // updated_at/next_refresh_at and records no snapshot, since nothing was fetched.
+    // Posts arrive newest first and are trimmed to the same retention cap as a live fetch.
+    @Transactional
+    public InstagramProfileWithPosts rebuildProfileWithPosts(
+            InstagramProfile profile,
+            List<InstagramPost> allPosts,
+            LocalDateTime fetchedAt) {
+        List<InstagramPost> posts = allPosts.size() > maxRetainedPosts
+                ? allPosts.subList(0, maxRetainedPosts)
+                : allPosts;
         String username = profile.username();
+        InstagramProfileEntity previous = profileRepository.findById(username).orElse(null);
         InstagramProfileEntity entity = toEntity(profile);
-        entity.setUpdatedAt(LocalDateTime.now());
+        if (previous != null) {
+            entity.setUpdatedAt(previous.getUpdatedAt());
+            entity.setNextRefreshAt(previous.getNextRefreshAt());
+        } else {
+            entity.setUpdatedAt(fetchedAt);
+            entity.setNextRefreshAt(computeNextRefreshAt(null, profile, takenAtEpochSeconds(posts), fetchedAt));
+        }
         profileRepository.save(entity);
+        List<InstagramPostEntity> postEntities = replacePosts(username, posts, fetchedAt);
+        saveInsights(username, profile, posts, LocalDateTime.now());
+        return toProfileWithPosts(entity, postEntities);
+    }
 
+    private List<InstagramPostEntity> replacePosts(String username, List<InstagramPost> posts, LocalDateTime now) {
         postRepository.deleteByUsername(username);
         List<InstagramPostEntity> postEntities = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
         for (InstagramPost post : posts) {
             InstagramPostEntity postEntity = toEntity(username, post);
             postEntity.setUpdatedAt(now);
             postEntities.add(postEntity);
         }
         postRepository.saveAll(postEntities);
-        return toProfileWithPosts(entity, postEntities);
+        return postEntities;
+    }
+
+    public Optional<InstagramInsightsCalculator.Metrics> findCurrentInsights(String username) {
+        return insightsRepository.findById(username)
+                .filter(entity -> entity.getVersion() == InstagramInsightsCalculator.VERSION)
+                .map(this::toMetrics);
+    }
+
+    @Transactional
+    public int backfillInsights(int limit) {
+        List<String> usernames = insightsRepository.findUsernamesNeedingInsights(
+                InstagramInsightsCalculator.VERSION,
+                Math.max(1, limit));
+        LocalDateTime now = LocalDateTime.now();
+        int computed = 0;
+        for (String username : usernames) {
+            Optional<InstagramProfileEntity> profile = profileRepository.findById(username);
+            if (profile.isEmpty()) {
+                continue;
+            }
+            saveInsights(
+                    username,
+                    toDto(profile.get()),
+                    toPostDtos(postRepository.findByUsernameOrderByTakenAtDesc(username)),
+                    now);
+            computed += 1;
+        }
+        return computed;
+    }
+
+    private InstagramInsightsCalculator.Metrics saveInsights(
+            String username,
+            InstagramProfile profile,
+            List<InstagramPost> posts,
+            LocalDateTime now) {
+        InstagramInsightsCalculator.Metrics metrics = InstagramInsightsCalculator.compute(profile, posts);
+        InstagramProfileInsightsEntity entity = new InstagramProfileInsightsEntity(username);
+        entity.setVersion(metrics.version());
+        entity.setEmail(metrics.email());
+        entity.setHasLinks(metrics.hasLinks());
+        entity.setUploadFreq(metrics.uploadFreq());
+        entity.setRecentAvgViews(metrics.recentAvgViews());
+        entity.setPinnedAvgViews(metrics.pinnedAvgViews());
+        entity.setRecent18AvgViews(metrics.recent18AvgViews());
+        entity.setRecentAds(writeStringList(metrics.recentAds()));
+        entity.setContactMethod(metrics.contactMethod());
+        entity.setRecentAvgComments(metrics.recentAvgComments());
+        entity.setRecentAvgLikes(metrics.recentAvgLikes());
+        entity.setComputedAt(now);
+        insightsRepository.save(entity);
+        return metrics;
+    }
+
+    private void recordSnapshot(InstagramProfile profile, InstagramInsightsCalculator.Metrics metrics, LocalDateTime now) {
+        if (snapshotService != null) {
+            snapshotService.record(profile, metrics, now.atZone(ZoneId.systemDefault()).toInstant());
+        }
+    }
+
+    private InstagramInsightsCalculator.Metrics toMetrics(InstagramProfileInsightsEntity entity) {
+        return new InstagramInsightsCalculator.Metrics(
+                entity.getVersion(),
+                entity.getEmail(),
+                entity.getHasLinks(),
+                entity.getUploadFreq(),
+                entity.getRecentAvgViews(),
+                entity.getPinnedAvgViews(),
+                entity.getRecent18AvgViews(),
+                readStringList(entity.getRecentAds()),
+                entity.getContactMethod(),
+                entity.getRecentAvgComments(),
+                entity.getRecentAvgLikes());
+    }
+
+    private static long[] takenAtEpochSeconds(List<InstagramPost> posts) {
+        long[] values = new long[posts.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = posts.get(i).takenAtEpochSeconds();
+        }
+        return values;
+    }
+
+    private static String writeStringList(List<String> values) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(values == null ? List.of() : values);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static List<String> readStringList(String json) {
+        if (json == null || json.isBlank()) {
+            return List.of();
+        }
+        try {
+            return OBJECT_MAPPER.readValue(json, STRING_LIST);
+        } catch (JsonProcessingException exception) {
+            return List.of();
+        }
+    }
+
+    // Rows written before per-creator scheduling have no next_refresh_at and fall back to their age;
+    // InstagramSyncQueueService applies the same fallback so it never claims a row this treats as fresh.
+    private boolean isFresh(InstagramProfileEntity profile, LocalDateTime now) {
+        if (profile.getNextRefreshAt() != null) {
+            return profile.getNextRefreshAt().isAfter(now);
+        }
+        return profile.getUpdatedAt() != null && profile.getUpdatedAt().plusHours(unscheduledMaxAgeHours).isAfter(now);
+    }
+
+    private LocalDateTime computeNextRefreshAt(
+            InstagramProfileEntity previous,
+            InstagramProfile profile,
+            long[] takenAtEpochSeconds,
+            LocalDateTime now) {
+        Double postsPerWeek = InstagramRefreshPolicy.postsPerWeek(
+                takenAtEpochSeconds,
+                now.atZone(ZoneId.systemDefault()).toInstant());
+        double followerChangePerDay = 0;
+        if (previous != null && previous.getUpdatedAt() != null) {
+            followerChangePerDay = InstagramRefreshPolicy.followerChangePerDay(
+                    previous.getFollowers(),
+                    profile.followers(),
+                    Duration.between(previous.getUpdatedAt(), now));
+        }
+        long hours = InstagramRefreshPolicy.computeIntervalHours(
+                postsPerWeek,
+                followerChangePerDay,
+                refreshMinIntervalHours,
+                refreshMaxIntervalHours);
+        return now.plusHours(hours);
     }
 
     private InstagramProfileWithPosts toProfileWithPosts(
@@ -94,7 +398,7 @@ public class InstagramCacheService {
                     post.getVideoViewCount(),
                     post.getLikeCount(),
                     post.getCommentCount(),
-                    post.getTakenAt(),
+                    post.getTakenAt() == null ? 0 : post.getTakenAt().getEpochSecond(),
                     post.getMediaType()));
         }
         return results;
@@ -127,7 +431,7 @@ public class InstagramCacheService {
         entity.setVideoViewCount(post.videoViewCount());
         entity.setLikeCount(post.likeCount());
         entity.setCommentCount(post.commentCount());
-        entity.setTakenAt(post.takenAt());
+        entity.setTakenAt(post.takenAtEpochSeconds() > 0 ? Instant.ofEpochSecond(post.takenAtEpochSeconds()) : null);
         entity.setMediaType(post.mediaType());
         return entity;
     }
@@ -0,0 +1,103 @@
+package org.engine.pickerengine.service;
+
+import org.engine.pickerengine.dto.InstagramCaptionMatch;
+import org.engine.pickerengine.dto.InstagramCaptionSearchPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+public class InstagramCaptionSearchService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramCaptionSearchService.class);
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int SNIPPET_RADIUS = 60;
+    // caption_tsv and the trigram index are created by InstagramPostSchemaMigration; the ILIKE branch
+    // covers Korean text that the 'simple' tokenizer leaves glued to particles.
+    private static final String SEARCH_SQL = """
+            SELECT p.username, p.post_id, p.permalink, p.caption, p.taken_at
+            FROM instagram_posts p,
+                 websearch_to_tsquery('simple', ?) q
+            WHERE p.caption_tsv @@ q
+               OR p.caption ILIKE ? ESCAPE '\\'
+            ORDER BY ts_rank(p.caption_tsv, q) DESC, p.taken_at DESC NULLS LAST, p.post_id
+            LIMIT ? OFFSET ?
+            """;
+
+    private final DataSource dataSource;
+
+    public InstagramCaptionSearchService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public InstagramCaptionSearchPage search(String query, int page, int size) {
+        String trimmed = query == null ? "" : query.trim();
+        int resolvedPage = Math.max(0, page);
+        int resolvedSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<InstagramCaptionMatch> matches = new ArrayList<>();
+        if (trimmed.isEmpty() || dataSource == null) {
+            return new InstagramCaptionSearchPage(trimmed, matches, resolvedPage, resolvedSize, false);
+        }
+        boolean hasMore = false;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SEARCH_SQL)) {
+            statement.setString(1, trimmed);
+            statement.setString(2, "%" + escapeLike(trimmed) + "%");
+            statement.setInt(3, resolvedSize + 1);
+            statement.setLong(4, (long) resolvedPage * resolvedSize);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    if (matches.size() == resolvedSize) {
+                        hasMore = true;
+                        break;
+                    }
+                    Timestamp takenAt = resultSet.getTimestamp(5);
+                    matches.add(new InstagramCaptionMatch(
+                            resultSet.getString(1),
+                            resultSet.getString(2),
+                            resultSet.getString(3),
+                            snippet(resultSet.getString(4), trimmed),
+                            takenAt == null ? null : takenAt.toInstant().toString()));
+                }
+            }
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to search instagram captions for {}", trimmed, exception);
+        }
+        return new InstagramCaptionSearchPage(trimmed, matches, resolvedPage, resolvedSize, hasMore);
+    }
+
+    static String snippet(String caption, String query) {
+        if (caption == null || caption.isBlank()) {
+            return "";
+        }
+        String flattened = caption.replaceAll("\\s+", " ").trim();
+        String lower = flattened.toLowerCase(Locale.ROOT);
+        int position = lower.indexOf(query.toLowerCase(Locale.ROOT));
+        if (position < 0) {
+            for (String term : query.toLowerCase(Locale.ROOT).split("\\s+")) {
+                String cleaned = term.replaceAll("^[-\"]+|\"+$", "");
+                if (!cleaned.isEmpty() && (position = lower.indexOf(cleaned)) >= 0) {
+                    break;
+                }
+            }
+        }
+        int start = Math.max(0, position - SNIPPET_RADIUS);
+        int end = Math.min(flattened.length(), Math.max(position, 0) + query.length() + SNIPPET_RADIUS);
+        String snippet = flattened.substring(start, end);
+        return (start > 0 ? "…" : "") + snippet + (end < flattened.length() ? "…" : "");
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
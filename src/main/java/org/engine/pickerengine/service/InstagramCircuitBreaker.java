@@ -0,0 +1,122 @@
+package org.engine.pickerengine.service;
+
+import org.engine.pickerengine.dto.InstagramCircuitBreakerState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Locale;
+
+final class InstagramCircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramCircuitBreaker.class);
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMs;
+    private final long maxOpenMs;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int reopenCount;
+    private long openUntil;
+    private long lastTransitionAt;
+    private long transitions;
+    private boolean probeInFlight;
+
+    InstagramCircuitBreaker(String name, int failureThreshold, long openMs, long maxOpenMs) {
+        this.name = name;
+        this.failureThreshold = Math.max(0, failureThreshold);
+        this.openMs = Math.max(0, openMs);
+        this.maxOpenMs = Math.max(this.openMs, maxOpenMs);
+    }
+
+    synchronized boolean tryAcquire(long nowMs) {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (nowMs < openUntil) {
+                return false;
+            }
+            transition(State.HALF_OPEN, nowMs);
+        }
+        if (probeInFlight) {
+            return false;
+        }
+        probeInFlight = true;
+        return true;
+    }
+
+    synchronized long millisUntilRetry(long nowMs) {
+        return state == State.OPEN ? Math.max(0, openUntil - nowMs) : 0;
+    }
+
+    synchronized void onSuccess(long nowMs) {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            reopenCount = 0;
+            transition(State.CLOSED, nowMs);
+        }
+    }
+
+    synchronized void onFailure(long nowMs) {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            reopenCount += 1;
+            open(nowMs);
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        consecutiveFailures += 1;
+        if (failureThreshold > 0 && consecutiveFailures >= failureThreshold) {
+            open(nowMs);
+        }
+    }
+
+    synchronized void onCancelled() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized InstagramCircuitBreakerState snapshot() {
+        return new InstagramCircuitBreakerState(
+                name,
+                state.name().toLowerCase(Locale.ROOT),
+                consecutiveFailures,
+                reopenCount,
+                state == State.OPEN ? Instant.ofEpochMilli(openUntil).toString() : null,
+                lastTransitionAt > 0 ? Instant.ofEpochMilli(lastTransitionAt).toString() : null,
+                transitions);
+    }
+
+    private void open(long nowMs) {
+        long duration = Math.min(maxOpenMs, (long) (openMs * Math.pow(2, Math.min(reopenCount, 20))));
+        openUntil = nowMs + duration;
+        consecutiveFailures = 0;
+        transition(State.OPEN, nowMs);
+    }
+
+    private void transition(State next, long nowMs) {
+        if (state == next) {
+            return;
+        }
+        LOGGER.warn("Instagram circuit breaker {} {} -> {} (openUntil={})", name, state, next, openUntil);
+        state = next;
+        lastTransitionAt = nowMs;
+        transitions += 1;
+    }
+}
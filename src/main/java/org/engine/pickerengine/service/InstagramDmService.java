@@ -11,6 +11,11 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
 
 import java.io.InputStream;
 import java.net.URI;
@@ -21,6 +26,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class InstagramDmService {
@@ -57,6 +63,10 @@ public class InstagramDmService {
     private final String apiKey;
     private final String model;
     private final Duration timeout;
+    private final String apiBaseUrl;
+    private final MeterRegistry meterRegistry;
+    private final InstagramModelUsageService usageService;
+    private final Tracer tracer;
     private final String defaultPromptVersion;
 
     public InstagramDmService(
@@ -66,7 +76,11 @@ public class InstagramDmService {
             @Value("${openai.api-key:}") String apiKey,
             @Value("${openai.model:" + DEFAULT_MODEL + "}") String model,
             @Value("${instagram.dm-prompt-version:" + DEFAULT_DM_PROMPT_VERSION + "}") String promptVersion,
-            @Value("${openai.timeout-seconds:20}") int timeoutSeconds) {
+            @Value("${openai.timeout-seconds:20}") int timeoutSeconds,
+            @Value("${openai.base-url:https://api.openai.com}") String apiBaseUrl,
+            MeterRegistry meterRegistry,
+            InstagramModelUsageService usageService,
+            OpenTelemetry openTelemetry) {
         this.keywordService = keywordService;
         this.instagramService = instagramService;
         this.dmPromptService = dmPromptService;
@@ -76,6 +90,12 @@ public class InstagramDmService {
                 ? DEFAULT_DM_PROMPT_VERSION
                 : promptVersion.trim();
         this.timeout = Duration.ofSeconds(Math.max(1, timeoutSeconds));
+        this.apiBaseUrl = apiBaseUrl == null || apiBaseUrl.isBlank()
+                ? "https://api.openai.com"
+                : apiBaseUrl.trim().replaceAll("/+$", "");
+        this.meterRegistry = meterRegistry;
+        this.usageService = usageService;
+        this.tracer = InstagramTracing.tracer(openTelemetry);
         this.httpClient = HttpClient.newBuilder()
                 .followRedirects(HttpClient.Redirect.NORMAL)
                 .build();
@@ -91,21 +111,29 @@ public class InstagramDmService {
         if (userId == null || userId.isBlank() || apiKey.isBlank()) {
             return new InstagramDmResponse("", List.of(), List.of(), List.of(), "");
         }
-        InstagramKeywordResponse keywords = keywordService.extractKeywords(
-                userId,
-                keywordVersion,
-                customKeywordPrompt,
-                ignoreCache);
-        InstagramProfileWithPosts profileWithPosts = instagramService.fetchProfileWithPosts(userId);
-        DmPromptContext context = buildPromptContext(profileWithPosts.profile(), keywords);
-        String prompt = buildPrompt(context, resolvePromptVersion(dmVersion), customDmPrompt);
-        String message = callModel(prompt);
-        return new InstagramDmResponse(
-                message,
-                context.moodKeywords(),
-                context.contentKeywords(),
-                context.toneKeywords(),
-                context.impressionSummary());
+        return InstagramTracing.inSpan(tracer, "dm.generate", () -> {
+            InstagramKeywordResponse keywords = keywordService.extractKeywords(
+                    userId,
+                    keywordVersion,
+                    customKeywordPrompt,
+                    ignoreCache);
+            InstagramProfileWithPosts profileWithPosts = instagramService.fetchProfileWithPosts(userId);
+            String resolvedVersion = resolvePromptVersion(dmVersion);
+            DmPromptContext context = buildPromptContext(profileWithPosts.profile(), keywords);
+            String prompt = InstagramTracing.inSpan(
+                    tracer,
+                    "dm.prompt.build",
+                    () -> buildPrompt(context, resolvedVersion, customDmPrompt));
+            String message = callModel(
+                    prompt,
+                    InstagramModelUsageService.promptVersionLabel(resolvedVersion, customDmPrompt));
+            return new InstagramDmResponse(
+                    message,
+                    context.moodKeywords(),
+                    context.contentKeywords(),
+                    context.toneKeywords(),
+                    context.impressionSummary());
+        });
     }
 
     public InstagramDmResponse generateDmFromKeywords(
@@ -116,8 +144,11 @@ public class InstagramDmService {
             return new InstagramDmResponse("", List.of(), List.of(), List.of(), "");
         }
         List<String> cleanedKeywords = sanitizeKeywords(keywords);
-        String prompt = buildKeywordsPrompt(cleanedKeywords, resolvePromptVersion(dmVersion), customDmPrompt);
-        String message = callModel(prompt);
+        String resolvedVersion = resolvePromptVersion(dmVersion);
+        String prompt = buildKeywordsPrompt(cleanedKeywords, resolvedVersion, customDmPrompt);
+        String message = callModel(
+                prompt,
+                InstagramModelUsageService.promptVersionLabel(resolvedVersion, customDmPrompt));
         return new InstagramDmResponse(
                 message,
                 cleanedKeywords,
@@ -251,26 +282,52 @@ public class InstagramDmService {
         return builder.toString();
     }
 
-    private String callModel(String prompt) {
+    private String callModel(String prompt, String usageVersion) {
         if (prompt == null || prompt.isBlank()) {
             return "";
         }
+        if (InstagramRequestDeadline.isExpired()) {
+            return "";
+        }
+        long startedAt = System.nanoTime();
+        String status = "error";
+        int statusCode = 0;
+        String outcome = "error";
+        Span span = tracer.spanBuilder("openai.responses")
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("openai.service", "dm")
+                .setAttribute("openai.prompt_version", usageVersion)
+                .startSpan();
         try {
             ObjectNode payload = buildPayload(prompt);
-            HttpRequest request = HttpRequest.newBuilder(URI.create("https://api.openai.com/v1/responses"))
-                    .timeout(timeout)
+            HttpRequest request = HttpRequest.newBuilder(URI.create(apiBaseUrl + "/v1/responses"))
+                    .timeout(InstagramRequestDeadline.clampTimeout(timeout))
                     .header("Authorization", "Bearer " + apiKey)
                     .header("Content-Type", "application/json")
                     .POST(HttpRequest.BodyPublishers.ofString(OBJECT_MAPPER.writeValueAsString(payload)))
                     .build();
             HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            statusCode = response.statusCode();
+            status = String.valueOf(statusCode);
+            outcome = statusCode >= 200 && statusCode < 300 ? "ok" : "http_error";
+            if (statusCode < 200 || statusCode >= 300) {
                 return "";
             }
             JsonNode root = OBJECT_MAPPER.readTree(response.body());
+            usageService.record("dm", usageVersion, model, root.path("usage"));
             return extractOutputText(root);
         } catch (Exception ignored) {
+            outcome = "error";
             return "";
+        } finally {
+            // Semantic conventions want a numeric status, and only when a response arrived.
+            if (statusCode > 0) {
+                span.setAttribute("http.status_code", (long) statusCode);
+            }
+            span.setAttribute("openai.outcome", outcome);
+            span.end();
+            meterRegistry.timer("openai.requests", "service", "dm", "model", model, "status", status)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
         }
     }
 
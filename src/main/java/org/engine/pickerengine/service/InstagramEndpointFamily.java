@@ -0,0 +1,32 @@
+package org.engine.pickerengine.service;
+
+import java.net.URI;
+
+enum InstagramEndpointFamily {
+    PROFILE,
+    FEED,
+    KEYWORD_SEARCH,
+    FBSEARCH,
+    HASHTAG,
+    OTHER;
+
+    static InstagramEndpointFamily fromUri(URI uri) {
+        String path = uri == null || uri.getPath() == null ? "" : uri.getPath();
+        if (path.contains("/users/web_profile_info")) {
+            return PROFILE;
+        }
+        if (path.contains("/feed/user/")) {
+            return FEED;
+        }
+        if (path.contains("/web/search/topsearch")) {
+            return KEYWORD_SEARCH;
+        }
+        if (path.contains("/fbsearch/")) {
+            return FBSEARCH;
+        }
+        if (path.contains("/tags/")) {
+            return HASHTAG;
+        }
+        return OTHER;
+    }
+}
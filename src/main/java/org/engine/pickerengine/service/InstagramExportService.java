@@ -0,0 +1,327 @@
+package org.engine.pickerengine.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+public class InstagramExportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramExportService.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String INFLUENCER_SQL = """
+            SELECT i.*
+            FROM influencer i
+            WHERE i.platform = 'instagram'
+            """;
+    private static final String PROFILES_SQL = """
+            SELECT p.username,
+                   p.full_name,
+                   p.followers,
+                   p.following,
+                   p.media_count,
+                   p.category_name,
+                   p.is_verified,
+                   p.is_private,
+                   p.external_url,
+                   p.updated_at,
+                   t.priority_tier,
+                   s.email,
+                   s.contact_method,
+                   s.has_links,
+                   s.upload_freq,
+                   s.recent_avg_views,
+                   s.recent_avg_likes,
+                   s.recent_avg_comments,
+                   s.pinned_avg_views,
+                   s.recent18_avg_views
+            FROM instagram_profiles p
+            LEFT JOIN instagram_profile_insights s ON s.username = p.username
+            LEFT JOIN (
+                SELECT DISTINCT ON (lower(btrim(username)))
+                       lower(btrim(username)) AS username,
+                       priority_tier
+                FROM influencer
+                WHERE platform = 'instagram'
+                ORDER BY 1, priority_tier
+            ) t ON t.username = p.username
+            WHERE true
+            """;
+
+    private final DataSource dataSource;
+    private final int fetchSize;
+
+    public InstagramExportService(
+            DataSource dataSource,
+            @Value("${instagram.export.fetch-size:1000}") int fetchSize) {
+        this.dataSource = dataSource;
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+
+    public long export(ExportFilter filter, Format format, OutputStream output) throws IOException {
+        List<Object> params = new ArrayList<>();
+        String sql = buildQuery(filter, params);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+        long rows;
+        // A server-side cursor needs autocommit off; the driver then pages rows in fetchSize chunks.
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            boolean readOnly = connection.isReadOnly();
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    sql,
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < params.size(); i++) {
+                    statement.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    rows = format == Format.NDJSON
+                            ? writeNdjson(resultSet, writer)
+                            : writeCsv(resultSet, writer);
+                }
+                connection.commit();
+            } finally {
+                connection.setReadOnly(readOnly);
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException exception) {
+            LOGGER.warn("Instagram export failed", exception);
+            throw new IOException("Instagram export failed", exception);
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private String buildQuery(ExportFilter filter, List<Object> params) {
+        boolean profiles = filter.source() == Source.PROFILES;
+        StringBuilder sql = new StringBuilder(profiles ? PROFILES_SQL : INFLUENCER_SQL);
+        String alias = profiles ? "p" : "i";
+        if (filter.tier() != null && !filter.tier().isBlank()) {
+            sql.append(profiles ? "  AND t.priority_tier = ?\n" : "  AND i.priority_tier = ?\n");
+            params.add(filter.tier().trim());
+        }
+        if (filter.minFollowers() != null) {
+            sql.append("  AND ").append(alias).append(".followers >= ?\n");
+            params.add(filter.minFollowers());
+        }
+        if (filter.maxFollowers() != null) {
+            sql.append("  AND ").append(alias).append(".followers <= ?\n");
+            params.add(filter.maxFollowers());
+        }
+        if (filter.category() != null && !filter.category().isBlank()) {
+            sql.append(profiles ? "  AND p.category_name ILIKE ?\n" : "  AND i.categories::text ILIKE ?\n");
+            params.add("%" + filter.category().trim() + "%");
+        }
+        if (filter.updatedSince() != null) {
+            sql.append("  AND ").append(alias).append(".updated_at >= ?\n");
+            params.add(Timestamp.from(filter.updatedSince()));
+        }
+        sql.append(profiles ? "ORDER BY p.username" : "ORDER BY i.username");
+        return sql.toString();
+    }
+
+    private long writeCsv(ResultSet resultSet, Writer writer) throws SQLException, IOException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columns = metaData.getColumnCount();
+        for (int column = 1; column <= columns; column++) {
+            if (column > 1) {
+                writer.write(',');
+            }
+            writeCsvValue(writer, metaData.getColumnLabel(column));
+        }
+        writer.write('\n');
+        long rows = 0;
+        while (resultSet.next()) {
+            for (int column = 1; column <= columns; column++) {
+                if (column > 1) {
+                    writer.write(',');
+                }
+                Object value = resultSet.getObject(column);
+                if (value != null) {
+                    writeCsvValue(writer, formatValue(value).toString());
+                }
+            }
+            writer.write('\n');
+            rows += 1;
+        }
+        return rows;
+    }
+
+    private long writeNdjson(ResultSet resultSet, Writer writer) throws SQLException, IOException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columns = metaData.getColumnCount();
+        String[] labels = new String[columns];
+        for (int column = 1; column <= columns; column++) {
+            labels[column - 1] = metaData.getColumnLabel(column);
+        }
+        long rows = 0;
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (resultSet.next()) {
+                generator.writeStartObject();
+                for (int column = 1; column <= columns; column++) {
+                    generator.writeFieldName(labels[column - 1]);
+                    writeJsonValue(generator, resultSet.getObject(column));
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                rows += 1;
+            }
+        }
+        return rows;
+    }
+
+    private static void writeJsonValue(JsonGenerator generator, Object value) throws IOException {
+        Object formatted = value == null ? null : formatValue(value);
+        if (formatted == null) {
+            generator.writeNull();
+        } else if (formatted instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else if (formatted instanceof Integer || formatted instanceof Long || formatted instanceof Short) {
+            generator.writeNumber(((Number) formatted).longValue());
+        } else if (formatted instanceof BigDecimal decimal) {
+            generator.writeNumber(decimal);
+        } else if (formatted instanceof Number number) {
+            generator.writeNumber(number.doubleValue());
+        } else {
+            generator.writeString(formatted.toString());
+        }
+    }
+
+    private static Object formatValue(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant().toString();
+        }
+        if (value instanceof java.sql.Array array) {
+            try {
+                return OBJECT_MAPPER.writeValueAsString(array.getArray());
+            } catch (Exception ignored) {
+                return value.toString();
+            }
+        }
+        return value;
+    }
+
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0
+                || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    public enum Source {
+        INFLUENCER,
+        PROFILES;
+
+        public static Source parse(String value) {
+            if (value != null && value.trim().toLowerCase(Locale.ROOT).startsWith("profile")) {
+                return PROFILES;
+            }
+            return INFLUENCER;
+        }
+    }
+
+    public enum Format {
+        CSV("text/csv; charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            if (value != null && value.trim().equalsIgnoreCase("ndjson")) {
+                return NDJSON;
+            }
+            return CSV;
+        }
+    }
+
+    public record ExportFilter(
+            Source source,
+            String tier,
+            Long minFollowers,
+            Long maxFollowers,
+            String category,
+            Instant updatedSince) {
+
+        public static ExportFilter of(
+                String source,
+                String tier,
+                Long minFollowers,
+                Long maxFollowers,
+                String category,
+                String updatedSince) {
+            return new ExportFilter(
+                    Source.parse(source),
+                    tier,
+                    minFollowers,
+                    maxFollowers,
+                    category,
+                    parseInstant(updatedSince));
+        }
+
+        private static Instant parseInstant(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            String trimmed = value.trim();
+            try {
+                if (trimmed.length() == 10) {
+                    return LocalDate.parse(trimmed).atStartOfDay(ZoneOffset.UTC).toInstant();
+                }
+                return Instant.parse(trimmed);
+            } catch (DateTimeParseException exception) {
+                throw new IllegalArgumentException("updatedSince must be yyyy-MM-dd or an ISO-8601 instant: " + trimmed);
+            }
+        }
+    }
+}
@@ -0,0 +1,601 @@
+package org.engine.pickerengine.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@Service
+public class InstagramImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramImportService.class);
+    private static final List<String> USERNAME_COLUMNS = List.of(
+            "username", "instagram_username", "user_name", "handle", "instagram", "account", "value");
+    private static final List<String> TIER_COLUMNS = List.of("priority_tier", "tier");
+    private static final String[] PROFILE_COLUMNS = {
+            "username", "full_name", "biography", "profile_pic_url", "followers", "following",
+            "media_count", "external_url", "category_name", "is_private", "is_verified", "updated_at"
+    };
+    private static final String[] POST_COLUMNS = {
+            "post_id", "username", "shortcode", "caption", "thumbnail_url", "display_url", "permalink",
+            "is_video", "video_view_count", "like_count", "comment_count", "taken_at", "media_type", "updated_at"
+    };
+    private static final int COPY_CHUNK_BYTES = 256 * 1024;
+    private static final String CREATE_USERNAME_STAGING_SQL = """
+            CREATE TEMP TABLE instagram_import_usernames (
+                username text,
+                priority_tier text
+            ) ON COMMIT DROP
+            """;
+    private static final String COPY_USERNAMES_SQL = """
+            COPY instagram_import_usernames (username, priority_tier) FROM STDIN WITH (FORMAT csv)
+            """;
+    private static final String CREATE_PROFILE_STAGING_SQL = """
+            CREATE TEMP TABLE instagram_import_profiles (
+                username text,
+                full_name text,
+                biography text,
+                profile_pic_url text,
+                followers text,
+                following text,
+                media_count text,
+                external_url text,
+                category_name text,
+                is_private text,
+                is_verified text,
+                updated_at text
+            ) ON COMMIT DROP
+            """;
+    private static final String COPY_PROFILES_SQL =
+            "COPY instagram_import_profiles (" + String.join(", ", PROFILE_COLUMNS) + ") FROM STDIN WITH (FORMAT csv)";
+    private static final String CREATE_POST_STAGING_SQL = """
+            CREATE TEMP TABLE instagram_import_posts (
+                post_id text,
+                username text,
+                shortcode text,
+                caption text,
+                thumbnail_url text,
+                display_url text,
+                permalink text,
+                is_video text,
+                video_view_count text,
+                like_count text,
+                comment_count text,
+                taken_at text,
+                media_type text,
+                updated_at text
+            ) ON COMMIT DROP
+            """;
+    private static final String COPY_POSTS_SQL =
+            "COPY instagram_import_posts (" + String.join(", ", POST_COLUMNS) + ") FROM STDIN WITH (FORMAT csv)";
+    private static final String STAGE_PROFILE_USERNAMES_SQL = """
+            INSERT INTO instagram_import_usernames (username, priority_tier)
+            SELECT lower(btrim(username)), ?
+            FROM instagram_import_profiles
+            WHERE btrim(COALESCE(username, '')) <> ''
+            """;
+    private static final String COUNT_DISTINCT_USERNAMES_SQL = """
+            SELECT count(DISTINCT username)
+            FROM instagram_import_usernames
+            WHERE username <> ''
+            """;
+    // influencer is owned by another service; only the columns it requires without a default are filled in.
+    private static final String INFLUENCER_COLUMNS_SQL = """
+            SELECT column_name, data_type, is_nullable = 'NO' AND column_default IS NULL
+                       AND is_identity = 'NO' AND is_generated = 'NEVER'
+            FROM information_schema.columns
+            WHERE table_schema = current_schema()
+              AND table_name = 'influencer'
+            """;
+    private static final String MERGE_INFLUENCER_SQL = """
+            INSERT INTO influencer (platform, username, priority_tier%s)
+            SELECT 'instagram', s.username, s.priority_tier%s
+            FROM (
+                SELECT DISTINCT ON (username) username, priority_tier
+                FROM instagram_import_usernames
+                WHERE username <> ''
+                ORDER BY username, priority_tier NULLS LAST
+            ) s
+            WHERE NOT EXISTS (
+                SELECT 1
+                FROM influencer i
+                WHERE i.platform = 'instagram'
+                  AND lower(btrim(i.username)) = s.username
+            )
+            """;
+    private static final Set<String> INFLUENCER_TIMESTAMP_COLUMNS = Set.of(
+            "created_at", "updated_at", "createdAt", "updatedAt");
+    // SQLite stores CURRENT_TIMESTAMP in UTC; instagram_profiles/posts keep local timestamps like the JPA entities.
+    private static final String MERGE_PROFILES_SQL = """
+            INSERT INTO instagram_profiles (
+                username, full_name, biography, profile_pic_url, followers, following, media_count,
+                external_url, category_name, is_private, is_verified, updated_at, next_refresh_at)
+            SELECT s.username, s.full_name, s.biography, s.profile_pic_url,
+                   s.followers, s.following, s.media_count,
+                   s.external_url, s.category_name, s.is_private, s.is_verified,
+                   s.updated_at, NULL::timestamp
+            FROM (
+                SELECT DISTINCT ON (lower(btrim(username)))
+                       lower(btrim(username)) AS username,
+                       full_name,
+                       biography,
+                       profile_pic_url,
+                       COALESCE(NULLIF(followers, '')::integer, 0) AS followers,
+                       COALESCE(NULLIF(following, '')::integer, 0) AS following,
+                       COALESCE(NULLIF(media_count, '')::integer, 0) AS media_count,
+                       external_url,
+                       category_name,
+                       COALESCE(NULLIF(is_private, '')::integer, 0) <> 0 AS is_private,
+                       COALESCE(NULLIF(is_verified, '')::integer, 0) <> 0 AS is_verified,
+                       COALESCE((NULLIF(updated_at, '')::timestamp AT TIME ZONE 'UTC')::timestamp, LOCALTIMESTAMP)
+                           AS updated_at
+                FROM instagram_import_profiles
+                WHERE btrim(COALESCE(username, '')) <> ''
+                ORDER BY lower(btrim(username)), updated_at DESC NULLS LAST
+            ) s
+            ON CONFLICT (username)
+            DO UPDATE SET full_name = EXCLUDED.full_name,
+                          biography = EXCLUDED.biography,
+                          profile_pic_url = EXCLUDED.profile_pic_url,
+                          followers = EXCLUDED.followers,
+                          following = EXCLUDED.following,
+                          media_count = EXCLUDED.media_count,
+                          external_url = EXCLUDED.external_url,
+                          category_name = EXCLUDED.category_name,
+                          is_private = EXCLUDED.is_private,
+                          is_verified = EXCLUDED.is_verified,
+                          updated_at = EXCLUDED.updated_at,
+                          next_refresh_at = EXCLUDED.next_refresh_at
+            WHERE instagram_profiles.updated_at IS NULL
+               OR instagram_profiles.updated_at < EXCLUDED.updated_at
+            """;
+    private static final String MERGE_POSTS_SQL = """
+            INSERT INTO instagram_posts (
+                post_id, username, shortcode, caption, thumbnail_url, display_url, permalink,
+                is_video, video_view_count, like_count, comment_count, taken_at, media_type, updated_at)
+            SELECT DISTINCT ON (post_id)
+                   post_id,
+                   lower(btrim(username)),
+                   shortcode,
+                   caption,
+                   thumbnail_url,
+                   display_url,
+                   permalink,
+                   COALESCE(NULLIF(is_video, '')::integer, 0) <> 0,
+                   NULLIF(video_view_count, '')::integer,
+                   NULLIF(like_count, '')::integer,
+                   NULLIF(comment_count, '')::integer,
+                   NULLIF(btrim(taken_at), '')::timestamptz,
+                   media_type,
+                   COALESCE((NULLIF(updated_at, '')::timestamp AT TIME ZONE 'UTC')::timestamp, LOCALTIMESTAMP)
+            FROM instagram_import_posts
+            WHERE btrim(COALESCE(post_id, '')) <> ''
+              AND btrim(COALESCE(username, '')) <> ''
+            ORDER BY post_id, updated_at DESC NULLS LAST
+            ON CONFLICT (post_id)
+            DO UPDATE SET username = EXCLUDED.username,
+                          shortcode = EXCLUDED.shortcode,
+                          caption = EXCLUDED.caption,
+                          thumbnail_url = EXCLUDED.thumbnail_url,
+                          display_url = EXCLUDED.display_url,
+                          permalink = EXCLUDED.permalink,
+                          is_video = EXCLUDED.is_video,
+                          video_view_count = EXCLUDED.video_view_count,
+                          like_count = EXCLUDED.like_count,
+                          comment_count = EXCLUDED.comment_count,
+                          taken_at = EXCLUDED.taken_at,
+                          media_type = EXCLUDED.media_type,
+                          updated_at = EXCLUDED.updated_at
+            WHERE instagram_posts.updated_at IS NULL
+               OR instagram_posts.updated_at < EXCLUDED.updated_at
+            """;
+    // Carried-over profiles are scheduled from import time with the same cadence rule as
+    // InstagramRefreshPolicy (posts per week over the cached posts, clamped to min/max).
+    private static final String SCHEDULE_IMPORTED_SQL = """
+            UPDATE instagram_profiles p
+            SET next_refresh_at = LOCALTIMESTAMP + make_interval(hours => CASE
+                    WHEN s.posts = 0 THEN ?
+                    ELSE LEAST(?, GREATEST(?, round(168.0 / (s.posts / (GREATEST(1,
+                        floor(EXTRACT(EPOCH FROM (now() - s.earliest)) / 86400)) / 7.0)))::integer))
+                END)
+            FROM (
+                SELECT u.username, count(t.taken_at) AS posts, min(t.taken_at) AS earliest
+                FROM (SELECT DISTINCT username FROM instagram_import_usernames) u
+                LEFT JOIN instagram_posts t ON t.username = u.username AND t.taken_at > 'epoch'
+                GROUP BY u.username
+            ) s
+            WHERE p.username = s.username
+              AND p.next_refresh_at IS NULL
+            """;
+
+    private final DataSource dataSource;
+    private final InstagramSyncQueueService syncQueueService;
+    private final long refreshMinIntervalHours;
+    private final long refreshMaxIntervalHours;
+
+    public InstagramImportService(
+            DataSource dataSource,
+            InstagramSyncQueueService syncQueueService,
+            @Value("${instagram.refresh.min-interval-hours:12}") long refreshMinIntervalHours,
+            @Value("${instagram.refresh.max-interval-hours:4320}") long refreshMaxIntervalHours) {
+        this.dataSource = dataSource;
+        this.syncQueueService = syncQueueService;
+        this.refreshMinIntervalHours = Math.max(1, refreshMinIntervalHours);
+        this.refreshMaxIntervalHours = Math.max(this.refreshMinIntervalHours, refreshMaxIntervalHours);
+    }
+
+    public ImportResult importCsv(InputStream input, String usernameColumn, String defaultTier) throws IOException {
+        long started = System.currentTimeMillis();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_USERNAME_STAGING_SQL);
+                }
+                long rows = copyCsvUsernames(connection, input, usernameColumn, defaultTier);
+                ImportResult result = mergeUsernames(connection, "csv", rows, 0, 0, started);
+                connection.commit();
+                return finish(result);
+            } catch (SQLException | IOException | RuntimeException exception) {
+                connection.rollback();
+                throw exception;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException exception) {
+            throw new IOException("Instagram CSV import failed", exception);
+        }
+    }
+
+    public ImportResult importSqlite(Path path, String defaultTier) throws IOException {
+        long started = System.currentTimeMillis();
+        try (Connection sqlite = DriverManager.getConnection("jdbc:sqlite:" + path.toAbsolutePath());
+             Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_USERNAME_STAGING_SQL);
+                    statement.execute(CREATE_PROFILE_STAGING_SQL);
+                    statement.execute(CREATE_POST_STAGING_SQL);
+                }
+                long profileRows = copySqliteTable(sqlite, connection, "profiles", PROFILE_COLUMNS, COPY_PROFILES_SQL);
+                long postRows = copySqliteTable(sqlite, connection, "posts", POST_COLUMNS, COPY_POSTS_SQL);
+                try (PreparedStatement statement = connection.prepareStatement(STAGE_PROFILE_USERNAMES_SQL)) {
+                    statement.setString(1, blankToNull(defaultTier));
+                    statement.executeUpdate();
+                }
+                int profiles;
+                int posts;
+                try (Statement statement = connection.createStatement()) {
+                    profiles = statement.executeUpdate(MERGE_PROFILES_SQL);
+                    posts = statement.executeUpdate(MERGE_POSTS_SQL);
+                }
+                try (PreparedStatement statement = connection.prepareStatement(SCHEDULE_IMPORTED_SQL)) {
+                    statement.setInt(1, (int) refreshMaxIntervalHours);
+                    statement.setInt(2, (int) refreshMaxIntervalHours);
+                    statement.setInt(3, (int) refreshMinIntervalHours);
+                    statement.executeUpdate();
+                }
+                LOGGER.info(
+                        "Instagram SQLite import staged profiles={} posts={} (merged profiles={}, posts={})",
+                        profileRows,
+                        postRows,
+                        profiles,
+                        posts);
+                ImportResult result = mergeUsernames(connection, "sqlite", profileRows, profiles, posts, started);
+                connection.commit();
+                return finish(result);
+            } catch (SQLException | RuntimeException exception) {
+                connection.rollback();
+                throw exception;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException exception) {
+            throw new IOException("Instagram SQLite import failed", exception);
+        }
+    }
+
+    private ImportResult mergeUsernames(
+            Connection connection,
+            String format,
+            long rowsRead,
+            int profilesMerged,
+            int postsMerged,
+            long started) throws SQLException {
+        int distinct;
+        int inserted;
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery(COUNT_DISTINCT_USERNAMES_SQL)) {
+                distinct = resultSet.next() ? resultSet.getInt(1) : 0;
+            }
+            inserted = statement.executeUpdate(buildMergeInfluencerSql(connection));
+        }
+        return new ImportResult(
+                format,
+                rowsRead,
+                distinct,
+                inserted,
+                distinct - inserted,
+                profilesMerged,
+                postsMerged,
+                System.currentTimeMillis() - started);
+    }
+
+    private static String buildMergeInfluencerSql(Connection connection) throws SQLException {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        List<String> unfilled = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(INFLUENCER_COLUMNS_SQL)) {
+            while (resultSet.next()) {
+                String column = resultSet.getString(1);
+                String type = resultSet.getString(2);
+                boolean required = resultSet.getBoolean(3);
+                if (column.equals("platform") || column.equals("username") || column.equals("priority_tier")) {
+                    continue;
+                }
+                String value = null;
+                if (INFLUENCER_TIMESTAMP_COLUMNS.contains(column) && type.startsWith("timestamp")) {
+                    value = "now()";
+                } else if (required && type.equals("uuid")) {
+                    value = "gen_random_uuid()";
+                } else if (required) {
+                    unfilled.add(column);
+                }
+                if (value != null) {
+                    columns.append(", \"").append(column).append('"');
+                    values.append(", ").append(value);
+                }
+            }
+        }
+        if (!unfilled.isEmpty()) {
+            throw new IllegalStateException("influencer has required columns the import cannot fill: " + unfilled);
+        }
+        return MERGE_INFLUENCER_SQL.formatted(columns, values);
+    }
+
+    private ImportResult finish(ImportResult result) {
+        if (result.influencersInserted() > 0) {
+            syncQueueService.refillSoon();
+        }
+        LOGGER.info(
+                "Instagram import done (format={}, rows={}, distinct={}, inserted={}, profiles={}, posts={}, ms={})",
+                result.format(),
+                result.rowsRead(),
+                result.distinctUsernames(),
+                result.influencersInserted(),
+                result.profilesMerged(),
+                result.postsMerged(),
+                result.durationMs());
+        return result;
+    }
+
+    private long copyCsvUsernames(
+            Connection connection,
+            InputStream input,
+            String usernameColumn,
+            String defaultTier) throws SQLException, IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            return 0;
+        }
+        int usernameIndex = findColumn(header, usernameColumn == null || usernameColumn.isBlank()
+                ? USERNAME_COLUMNS
+                : List.of(usernameColumn));
+        if (usernameIndex < 0) {
+            throw new IllegalArgumentException("CSV has no username column: " + header);
+        }
+        int tierIndex = findColumn(header, TIER_COLUMNS);
+        String tier = blankToNull(defaultTier);
+        CopyWriter copy = new CopyWriter(connection, COPY_USERNAMES_SQL);
+        long rows = 0;
+        try {
+            List<String> record;
+            while ((record = readCsvRecord(reader)) != null) {
+                String username = normalizeUsername(usernameIndex < record.size() ? record.get(usernameIndex) : null);
+                if (username.isEmpty()) {
+                    continue;
+                }
+                String rowTier = tierIndex >= 0 && tierIndex < record.size() ? blankToNull(record.get(tierIndex)) : null;
+                copy.row(username, rowTier == null ? tier : rowTier);
+                rows += 1;
+            }
+            copy.end();
+        } finally {
+            copy.cancelIfActive();
+        }
+        return rows;
+    }
+
+    private long copySqliteTable(
+            Connection sqlite,
+            Connection connection,
+            String table,
+            String[] columns,
+            String copySql) throws SQLException {
+        CopyWriter copy = new CopyWriter(connection, copySql);
+        long rows = 0;
+        try (Statement statement = sqlite.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT " + String.join(", ", columns) + " FROM " + table)) {
+            String[] values = new String[columns.length];
+            while (resultSet.next()) {
+                for (int i = 0; i < columns.length; i++) {
+                    values[i] = resultSet.getString(i + 1);
+                }
+                copy.row(values);
+                rows += 1;
+            }
+            copy.end();
+        } finally {
+            copy.cancelIfActive();
+        }
+        return rows;
+    }
+
+    static String normalizeUsername(String value) {
+        if (value == null) {
+            return "";
+        }
+        String trimmed = value.trim();
+        int marker = trimmed.indexOf("instagram.com/");
+        if (marker >= 0) {
+            trimmed = trimmed.substring(marker + "instagram.com/".length());
+            int end = 0;
+            while (end < trimmed.length() && "/?#".indexOf(trimmed.charAt(end)) < 0) {
+                end++;
+            }
+            trimmed = trimmed.substring(0, end);
+        }
+        if (trimmed.startsWith("@")) {
+            trimmed = trimmed.substring(1);
+        }
+        return trimmed.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // RFC 4180 record reader: quoted fields may contain commas, doubled quotes and newlines.
+    static List<String> readCsvRecord(Reader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int ch;
+        while ((ch = reader.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                break;
+            } else if (ch != '\r') {
+                field.append((char) ch);
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        fields.add(field.toString());
+        if (!fields.isEmpty() && fields.get(0).startsWith("\uFEFF")) {
+            fields.set(0, fields.get(0).substring(1));
+        }
+        return fields;
+    }
+
+    private static int findColumn(List<String> header, List<String> candidates) {
+        for (String candidate : candidates) {
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).trim().equalsIgnoreCase(candidate)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // Buffers CSV-encoded rows and hands them to COPY ... FROM STDIN in large chunks.
+    private static final class CopyWriter {
+
+        private final CopyIn copyIn;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_CHUNK_BYTES + 4096);
+
+        CopyWriter(Connection connection, String sql) throws SQLException {
+            this.copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        }
+
+        void row(String... values) throws SQLException {
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                // Unquoted empty is NULL in COPY csv; quoting keeps empty strings distinct.
+                if (values[i] != null) {
+                    line.append('"').append(values[i].replace("\"", "\"\"")).append('"');
+                }
+            }
+            line.append('\n');
+            buffer.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+            if (buffer.size() >= COPY_CHUNK_BYTES) {
+                flush();
+            }
+        }
+
+        void end() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+
+        void cancelIfActive() throws SQLException {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (buffer.size() == 0) {
+                return;
+            }
+            byte[] bytes = buffer.toByteArray();
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.reset();
+        }
+    }
+
+    public record ImportResult(
+            String format,
+            long rowsRead,
+            int distinctUsernames,
+            int influencersInserted,
+            int alreadyKnown,
+            int profilesMerged,
+            int postsMerged,
+            long durationMs) {
+    }
+}
@@ -1,6 +1,7 @@
 package org.engine.pickerengine.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.engine.pickerengine.dto.InstagramProfile;
 import org.engine.pickerengine.dto.InstagramProfileInsights;
 import org.slf4j.Logger;
@@ -11,14 +12,18 @@ import org.springframework.stereotype.Service;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.sql.Types;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -29,16 +34,6 @@ public class InstagramInfluencerSyncService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(InstagramInfluencerSyncService.class);
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-    private static final String SELECT_SQL = """
-            SELECT username
-            FROM influencer
-            WHERE platform = 'instagram'
-              AND priority_tier = 'A'
-              AND username IS NOT NULL
-              AND username <> ''
-            ORDER BY username
-            LIMIT ? OFFSET ?
-            """;
     private static final String UPDATE_SQL = """
             UPDATE influencer
             SET "accountId" = ?,
@@ -58,38 +53,21 @@ public class InstagramInfluencerSyncService {
                 "contactMethod" = ?,
                 updated_at = now()
             WHERE platform = 'instagram'
-              AND priority_tier = 'A'
               AND username = ?
             """;
-    private static final String CREATE_STATE_TABLE_SQL = """
-            CREATE TABLE IF NOT EXISTS sync_state (
-                state_key text PRIMARY KEY,
-                state_value text NOT NULL,
-                updated_at timestamptz NOT NULL DEFAULT now()
-            )
-            """;
-    private static final String SELECT_STATE_SQL = """
-            SELECT state_value
-            FROM sync_state
-            WHERE state_key = ?
-            """;
-    private static final String UPSERT_STATE_SQL = """
-            INSERT INTO sync_state (state_key, state_value, updated_at)
-            VALUES (?, ?, now())
-            ON CONFLICT (state_key)
-            DO UPDATE SET state_value = EXCLUDED.state_value, updated_at = now()
-            """;
-    private static final String OFFSET_STATE_KEY = "instagram_influencer_sync_offset";
 
     private final DataSource dataSource;
     private final InstagramProfileInsightsService insightsService;
+    private final InstagramSyncQueueService syncQueueService;
+    private final InstagramSyncLeaseService leaseService;
+    private final InstagramNegativeCacheService negativeCache;
+    private final InstagramTokenBucket syncBudget;
+    private final MeterRegistry meterRegistry;
     private final int batchSize;
+    private final int parallelism;
     private final long rateLimitMs;
     private final int maxRetries;
     private final long retryDelayMs;
-    private final AtomicInteger offset = new AtomicInteger(0);
-    private final AtomicBoolean offsetInitialized = new AtomicBoolean(false);
-    private final Object offsetLock = new Object();
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final AtomicBoolean stopRequested = new AtomicBoolean(false);
     private final AtomicInteger patchSuccessCount = new AtomicInteger(0);
@@ -98,19 +76,34 @@ public class InstagramInfluencerSyncService {
     private final AtomicInteger lastRunUpdated = new AtomicInteger(0);
     private final AtomicInteger lastRunBatches = new AtomicInteger(0);
     private final AtomicInteger lastRunFetched = new AtomicInteger(0);
+    private final AtomicInteger lastRunFailed = new AtomicInteger(0);
     private final AtomicReference<String> lastRunMode = new AtomicReference<>("");
     private final AtomicReference<String> lastError = new AtomicReference<>(null);
 
     public InstagramInfluencerSyncService(
             DataSource dataSource,
             InstagramProfileInsightsService insightsService,
+            InstagramSyncQueueService syncQueueService,
+            InstagramSyncLeaseService leaseService,
+            InstagramNegativeCacheService negativeCache,
             @Value("${instagram.influencer-sync.batch-size:200}") int batchSize,
+            @Value("${instagram.influencer-sync.parallelism:1}") int parallelism,
             @Value("${instagram.influencer-sync.rate-limit-ms:200}") long rateLimitMs,
             @Value("${instagram.influencer-sync.max-retries:1}") int maxRetries,
-            @Value("${instagram.influencer-sync.retry-delay-ms:1000}") long retryDelayMs) {
+            @Value("${instagram.influencer-sync.retry-delay-ms:1000}") long retryDelayMs,
+            @Value("${instagram.influencer-sync.instance-budget-per-hour:0}") int instanceBudgetPerHour,
+            MeterRegistry meterRegistry) {
         this.dataSource = dataSource;
         this.insightsService = insightsService;
+        this.syncQueueService = syncQueueService;
+        this.leaseService = leaseService;
+        this.negativeCache = negativeCache;
+        this.syncBudget = instanceBudgetPerHour > 0
+                ? new InstagramTokenBucket(instanceBudgetPerHour, instanceBudgetPerHour / 3600.0)
+                : null;
+        this.meterRegistry = meterRegistry;
         this.batchSize = Math.max(1, batchSize);
+        this.parallelism = Math.max(1, parallelism);
         this.rateLimitMs = Math.max(0, rateLimitMs);
         this.maxRetries = Math.max(0, maxRetries);
         this.retryDelayMs = Math.max(0, retryDelayMs);
@@ -121,13 +114,13 @@ public class InstagramInfluencerSyncService {
             LOGGER.info("Instagram influencer sync already running; skip this cycle.");
             return 0;
         }
-        ensureOffsetInitialized();
         lastRunMode.set("batch");
         lastRunStarted.set(System.currentTimeMillis());
         lastRunFinished.set(0);
         lastRunUpdated.set(0);
         lastRunBatches.set(0);
         lastRunFetched.set(0);
+        lastRunFailed.set(0);
         patchSuccessCount.set(0);
         lastError.set(null);
         try {
@@ -135,6 +128,7 @@ public class InstagramInfluencerSyncService {
             lastRunUpdated.set(result.updated());
             lastRunBatches.set(result.fetched() > 0 ? 1 : 0);
             lastRunFetched.set(result.fetched());
+            lastRunFailed.set(result.failed());
             return result.updated();
         } catch (RuntimeException exception) {
             lastError.set(exception.getMessage());
@@ -156,14 +150,11 @@ public class InstagramInfluencerSyncService {
         if (!running.compareAndSet(false, true)) {
             return false;
         }
-        Thread worker = new Thread(this::runAllInternal, "instagram-influencer-run-all");
-        worker.setDaemon(true);
-        worker.start();
+        Thread.ofVirtual().name("instagram-influencer-run-all").start(this::runAllInternal);
         return true;
     }
 
     public SyncStatus getStatus() {
-        ensureOffsetInitialized();
         return new SyncStatus(
                 running.get(),
                 lastRunMode.get(),
@@ -172,23 +163,27 @@ public class InstagramInfluencerSyncService {
                 lastRunUpdated.get(),
                 lastRunBatches.get(),
                 lastError.get(),
-                offset.get(),
-                lastRunFetched.get());
+                syncQueueService.countDue(),
+                lastRunFetched.get(),
+                lastRunFailed.get(),
+                leaseService.getInstanceId(),
+                leaseService.getOwnedPartitions());
     }
 
     private void runAllInternal() {
-        ensureOffsetInitialized();
         lastRunMode.set("run-all");
         lastRunStarted.set(System.currentTimeMillis());
         lastRunFinished.set(0);
         lastRunUpdated.set(0);
         lastRunBatches.set(0);
         lastRunFetched.set(0);
+        lastRunFailed.set(0);
         patchSuccessCount.set(0);
         lastError.set(null);
         int updatedTotal = 0;
         int batches = 0;
         int fetchedTotal = 0;
+        int failedTotal = 0;
         try {
             while (true) {
                 if (stopRequested.get()) {
@@ -201,6 +196,7 @@ public class InstagramInfluencerSyncService {
                 batches += 1;
                 fetchedTotal += result.fetched();
                 updatedTotal += result.updated();
+                failedTotal += result.failed();
                 if (stopRequested.get()) {
                     break;
                 }
@@ -212,6 +208,7 @@ public class InstagramInfluencerSyncService {
             lastRunUpdated.set(updatedTotal);
             lastRunBatches.set(batches);
             lastRunFetched.set(fetchedTotal);
+            lastRunFailed.set(failedTotal);
             lastRunFinished.set(System.currentTimeMillis());
             stopRequested.set(false);
             running.set(false);
@@ -220,116 +217,119 @@ public class InstagramInfluencerSyncService {
 
     private BatchResult syncBatchInternal() {
         if (stopRequested.get()) {
-            return new BatchResult(0, 0);
+            return new BatchResult(0, 0, 0);
+        }
+        long batchStartedAt = System.nanoTime();
+        long stageStartedAt = batchStartedAt;
+        List<Integer> partitions = leaseService.ensureLeases();
+        recordStage("lease", stageStartedAt);
+        if (partitions.isEmpty()) {
+            LOGGER.info("Instagram influencer sync holds no partition leases; skip this cycle.");
+            return new BatchResult(0, 0, 0);
         }
-        int startOffset = Math.max(0, offset.get());
-        List<String> usernames = fetchUsernames(startOffset, batchSize);
-        if (usernames.isEmpty()) {
-            offset.set(0);
-            persistOffset(0);
-            return new BatchResult(0, 0);
+        stageStartedAt = System.nanoTime();
+        List<InstagramSyncQueueService.SyncCandidate> candidates = syncQueueService.claimBatch(
+                batchSize,
+                partitions,
+                leaseService.getPartitionCount());
+        recordStage("claim", stageStartedAt);
+        if (candidates.isEmpty()) {
+            return new BatchResult(0, 0, 0);
         }
         int updated = 0;
         int processed = 0;
+        int failed = 0;
         try (Connection connection = dataSource.getConnection();
              PreparedStatement update = connection.prepareStatement(UPDATE_SQL)) {
-            for (String username : usernames) {
-                if (stopRequested.get()) {
-                    break;
+            boolean budgetExhausted = false;
+            while (processed < candidates.size() && !budgetExhausted && !stopRequested.get()) {
+                List<InstagramSyncQueueService.SyncCandidate> chunk = new ArrayList<>();
+                while (processed + chunk.size() < candidates.size() && chunk.size() < parallelism) {
+                    if (syncBudget != null && !syncBudget.tryAcquire()) {
+                        LOGGER.info(
+                                "Instagram influencer sync budget exhausted; next slot in {}ms.",
+                                syncBudget.millisUntilAvailable());
+                        budgetExhausted = true;
+                        break;
+                    }
+                    chunk.add(candidates.get(processed + chunk.size()));
                 }
-                processed += 1;
-                UpdatePayload payload = buildPayloadWithRetry(username);
-                if (payload == null) {
-                    continue;
+                if (chunk.isEmpty()) {
+                    break;
                 }
-                bindUpdate(update, payload);
-                int applied = update.executeUpdate();
-                if (applied > 0) {
-                    int successTotal = patchSuccessCount.incrementAndGet();
-                    LOGGER.info("Patched influencer {} (patchSuccessCount={})", username, successTotal);
+                processed += chunk.size();
+                stageStartedAt = System.nanoTime();
+                List<UpdatePayload> payloads = fetchPayloads(chunk);
+                recordStage("fetch", stageStartedAt);
+                stageStartedAt = System.nanoTime();
+                for (int i = 0; i < chunk.size(); i++) {
+                    InstagramSyncQueueService.SyncCandidate candidate = chunk.get(i);
+                    UpdatePayload payload = payloads.get(i);
+                    if (payload == null) {
+                        failed += 1;
+                        syncQueueService.markFailed(candidate);
+                        recordProfile("failed");
+                        continue;
+                    }
+                    bindUpdate(update, payload);
+                    int applied = update.executeUpdate();
+                    syncQueueService.markSynced(candidate);
+                    if (applied > 0) {
+                        int successTotal = patchSuccessCount.incrementAndGet();
+                        LOGGER.info(
+                                "Patched influencer {} (score={}, patchSuccessCount={})",
+                                candidate.lookupUsername(),
+                                String.format(Locale.ROOT, "%.1f", candidate.score()),
+                                successTotal);
+                    }
+                    updated += applied;
+                    recordProfile(applied > 0 ? "updated" : "unmatched");
                 }
-                updated += applied;
+                recordStage("write", stageStartedAt);
                 sleepRateLimit();
             }
         } catch (SQLException exception) {
             LOGGER.warn("Instagram influencer sync failed", exception);
         }
-
-        int nextOffset = startOffset + processed;
-        boolean processedAll = processed >= usernames.size();
-        if (!processedAll) {
-            offset.set(nextOffset);
-            persistOffset(nextOffset);
-        } else if (usernames.size() < batchSize) {
-            offset.set(0);
-            persistOffset(0);
-        } else {
-            offset.set(nextOffset);
-            persistOffset(nextOffset);
+        if (processed < candidates.size()) {
+            syncQueueService.release(candidates.subList(processed, candidates.size()));
         }
-        return new BatchResult(processed, updated);
+        recordStage("batch", batchStartedAt);
+        return new BatchResult(processed, updated, failed);
     }
 
-    private List<String> fetchUsernames(int startOffset, int limit) {
-        List<String> results = new ArrayList<>();
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement statement = connection.prepareStatement(SELECT_SQL)) {
-            statement.setInt(1, limit);
-            statement.setInt(2, startOffset);
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    String username = resultSet.getString(1);
-                    if (username != null && !username.isBlank()) {
-                        results.add(username.trim());
-                    }
-                }
-            }
-        } catch (SQLException exception) {
-            LOGGER.warn("Failed to fetch influencer usernames", exception);
-        }
-        return results;
+    private void recordStage(String stage, long startedAtNanos) {
+        meterRegistry.timer("instagram.sync.stage", "stage", stage)
+                .record(System.nanoTime() - startedAtNanos, TimeUnit.NANOSECONDS);
     }
 
-    private void ensureOffsetInitialized() {
-        if (offsetInitialized.get()) {
-            return;
+    private void recordProfile(String result) {
+        meterRegistry.counter("instagram.sync.profiles", "result", result).increment();
+    }
+
+    private List<UpdatePayload> fetchPayloads(List<InstagramSyncQueueService.SyncCandidate> chunk) {
+        List<UpdatePayload> payloads = new ArrayList<>();
+        if (chunk.size() == 1) {
+            payloads.add(buildPayloadWithRetry(chunk.get(0).lookupUsername()));
+            return payloads;
         }
-        synchronized (offsetLock) {
-            if (offsetInitialized.get()) {
-                return;
-            }
-            try (Connection connection = dataSource.getConnection()) {
-                try (Statement statement = connection.createStatement()) {
-                    statement.execute(CREATE_STATE_TABLE_SQL);
-                }
-                try (PreparedStatement statement = connection.prepareStatement(SELECT_STATE_SQL)) {
-                    statement.setString(1, OFFSET_STATE_KEY);
-                    try (ResultSet resultSet = statement.executeQuery()) {
-                        if (resultSet.next()) {
-                            Integer loaded = parseOffset(resultSet.getString(1));
-                            if (loaded != null && loaded >= 0) {
-                                offset.set(loaded);
-                            }
-                        }
-                    }
-                }
-                offsetInitialized.set(true);
-            } catch (SQLException exception) {
-                LOGGER.warn("Failed to load instagram influencer sync offset", exception);
+        List<Future<UpdatePayload>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (InstagramSyncQueueService.SyncCandidate candidate : chunk) {
+                futures.add(executor.submit(() -> buildPayloadWithRetry(candidate.lookupUsername())));
             }
         }
-    }
-
-    private void persistOffset(int value) {
-        int safeValue = Math.max(0, value);
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement statement = connection.prepareStatement(UPSERT_STATE_SQL)) {
-            statement.setString(1, OFFSET_STATE_KEY);
-            statement.setString(2, Integer.toString(safeValue));
-            statement.executeUpdate();
-        } catch (SQLException exception) {
-            LOGGER.warn("Failed to persist instagram influencer sync offset", exception);
+        for (Future<UpdatePayload> future : futures) {
+            try {
+                payloads.add(future.get());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                payloads.add(null);
+            } catch (ExecutionException exception) {
+                payloads.add(null);
+            }
         }
+        return payloads;
     }
 
     private UpdatePayload buildPayloadWithRetry(String lookupUsername) {
@@ -339,6 +339,10 @@ public class InstagramInfluencerSyncService {
             if (payload != null) {
                 return payload;
             }
+            if (negativeCache.isSuppressed(lookupUsername)) {
+                LOGGER.info("Skipping instagram fetch retry for {} (negative cache)", lookupUsername);
+                return null;
+            }
             if (attempt < attempts) {
                 LOGGER.info("Retrying instagram fetch (attempt {}/{}) for {}", attempt + 1, attempts, lookupUsername);
                 sleepRetryDelay();
@@ -433,17 +437,6 @@ public class InstagramInfluencerSyncService {
         }
     }
 
-    private Integer parseOffset(String value) {
-        if (value == null || value.isBlank()) {
-            return null;
-        }
-        try {
-            return Integer.parseInt(value.trim());
-        } catch (NumberFormatException ignored) {
-            return null;
-        }
-    }
-
     private Long toLong(Integer value) {
         return value == null ? null : value.longValue();
     }
@@ -456,7 +449,7 @@ public class InstagramInfluencerSyncService {
         if (value == null) {
             return null;
         }
-        return String.format(java.util.Locale.ROOT, "%.2f", value);
+        return String.format(Locale.ROOT, "%.2f", value);
     }
 
     private String toJson(List<String> values) {
@@ -556,12 +549,15 @@ public class InstagramInfluencerSyncService {
             int lastRunUpdated,
             int lastRunBatches,
             String lastError,
-            int offset,
-            int lastRunFetched
+            int queueDue,
+            int lastRunFetched,
+            int lastRunFailed,
+            String instanceId,
+            List<Integer> partitions
     ) {
     }
 
-    private record BatchResult(int fetched, int updated) {
+    private record BatchResult(int fetched, int updated, int failed) {
     }
 
     private String formatEpochMillis(long value) {
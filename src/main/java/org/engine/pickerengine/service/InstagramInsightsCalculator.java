@@ -0,0 +1,239 @@
+package org.engine.pickerengine.service;
+
+import org.engine.pickerengine.dto.InstagramPost;
+import org.engine.pickerengine.dto.InstagramProfile;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+final class InstagramInsightsCalculator {
+
+    // Bump when a formula below changes; rows with an older version are recomputed by the backfill.
+    static final int VERSION = 1;
+
+    private static final Pattern EMAIL_PATTERN =
+            Pattern.compile("[A-Z0-9._%+-]+@[A-Z0-9.-]+\\.[A-Z]{2,}", Pattern.CASE_INSENSITIVE);
+
+    private InstagramInsightsCalculator() {
+    }
+
+    static Metrics compute(InstagramProfile profile, List<InstagramPost> posts) {
+        String bio = profile == null ? null : profile.biography();
+        String email = extractEmail(bio, profile == null ? null : profile.externalUrl());
+        Boolean hasLinks = detectLinkTreeOrYoutube(profile, bio);
+        List<InstagramPost> sortedPosts = sortPostsByTakenAtDesc(posts);
+        List<InstagramPost> recent9 = takeRecent(sortedPosts, 9);
+        List<InstagramPost> recent18 = takeRecent(sortedPosts, 18);
+        return new Metrics(
+                VERSION,
+                email,
+                hasLinks,
+                computeUploadFreqPerWeek(sortedPosts),
+                averageViews(recent9),
+                averageTopViews(recent18, 3),
+                averageViews(recent18),
+                detectRecentAds(recent18),
+                email != null && !email.isBlank() ? "email" : "dm",
+                averageMetric(recent9, InstagramPost::commentCount),
+                averageMetric(recent9, InstagramPost::likeCount));
+    }
+
+    private static String extractEmail(String... candidates) {
+        if (candidates == null) {
+            return null;
+        }
+        for (String candidate : candidates) {
+            if (candidate == null || candidate.isBlank()) {
+                continue;
+            }
+            String email = findEmail(candidate);
+            if (email != null) {
+                return email;
+            }
+        }
+        return null;
+    }
+
+    private static String findEmail(String text) {
+        Matcher matcher = EMAIL_PATTERN.matcher(text);
+        return matcher.find() ? matcher.group() : null;
+    }
+
+    private static Boolean detectLinkTreeOrYoutube(InstagramProfile profile, String bio) {
+        if (containsLinkKeyword(profile == null ? null : profile.externalUrl())) {
+            return true;
+        }
+        return containsLinkKeyword(bio);
+    }
+
+    private static boolean containsLinkKeyword(String value) {
+        if (value == null || value.isBlank()) {
+            return false;
+        }
+        String lower = value.toLowerCase(Locale.ROOT);
+        return lower.contains("linktr.ee")
+                || lower.contains("youtube.com")
+                || lower.contains("youtu.be");
+    }
+
+    private static List<InstagramPost> sortPostsByTakenAtDesc(List<InstagramPost> posts) {
+        if (posts == null || posts.isEmpty()) {
+            return List.of();
+        }
+        List<InstagramPost> sorted = new ArrayList<>(posts);
+        sorted.sort((left, right) -> {
+            long leftTime = left == null ? 0 : left.takenAtEpochSeconds();
+            long rightTime = right == null ? 0 : right.takenAtEpochSeconds();
+            if (leftTime <= 0 && rightTime <= 0) {
+                return 0;
+            }
+            if (leftTime <= 0) {
+                return 1;
+            }
+            if (rightTime <= 0) {
+                return -1;
+            }
+            return Long.compare(rightTime, leftTime);
+        });
+        return sorted;
+    }
+
+    private static List<InstagramPost> takeRecent(List<InstagramPost> posts, int limit) {
+        if (posts == null || posts.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return posts.subList(0, Math.min(limit, posts.size()));
+    }
+
+    private static Double computeUploadFreqPerWeek(List<InstagramPost> posts) {
+        if (posts == null || posts.size() < 2) {
+            return null;
+        }
+        int count = 0;
+        long earliest = Long.MAX_VALUE;
+        long latest = Long.MIN_VALUE;
+        for (InstagramPost post : posts) {
+            long takenAt = post == null ? 0 : post.takenAtEpochSeconds();
+            if (takenAt <= 0) {
+                continue;
+            }
+            count += 1;
+            earliest = Math.min(earliest, takenAt);
+            latest = Math.max(latest, takenAt);
+        }
+        if (count < 2) {
+            return null;
+        }
+        long days = (latest - earliest) / 86400;
+        if (days < 1) {
+            days = 1;
+        }
+        double weeks = days / 7.0;
+        return roundTwoDecimals(count / weeks);
+    }
+
+    private static Double averageViews(List<InstagramPost> posts) {
+        if (posts == null || posts.isEmpty()) {
+            return null;
+        }
+        long sum = 0;
+        for (InstagramPost post : posts) {
+            Integer views = post == null ? null : post.videoViewCount();
+            sum += views == null ? 0 : views;
+        }
+        return roundTwoDecimals(sum / (double) posts.size());
+    }
+
+    private static Double averageMetric(List<InstagramPost> posts, java.util.function.Function<InstagramPost, Integer> extractor) {
+        if (posts == null || posts.isEmpty()) {
+            return null;
+        }
+        long sum = 0;
+        for (InstagramPost post : posts) {
+            if (post == null) {
+                continue;
+            }
+            Integer value = extractor.apply(post);
+            sum += value == null ? 0 : value;
+        }
+        return roundTwoDecimals(sum / (double) posts.size());
+    }
+
+    private static Double averageTopViews(List<InstagramPost> posts, int topN) {
+        if (posts == null || posts.isEmpty() || topN <= 0) {
+            return null;
+        }
+        List<Integer> values = new ArrayList<>();
+        for (InstagramPost post : posts) {
+            Integer views = post == null ? null : post.videoViewCount();
+            values.add(views == null ? 0 : views);
+        }
+        values.sort(Comparator.reverseOrder());
+        int size = Math.min(topN, values.size());
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values.get(i);
+        }
+        return roundTwoDecimals(sum / (double) size);
+    }
+
+    private static List<String> detectRecentAds(List<InstagramPost> posts) {
+        if (posts == null || posts.isEmpty()) {
+            return List.of();
+        }
+        List<String> results = new ArrayList<>();
+        for (InstagramPost post : posts) {
+            if (post == null) {
+                continue;
+            }
+            if (!containsAdKeyword(post.caption())) {
+                continue;
+            }
+            String permalink = post.permalink();
+            if (permalink != null && !permalink.isBlank()) {
+                results.add(permalink);
+            } else if (post.postId() != null && !post.postId().isBlank()) {
+                results.add(post.postId());
+            }
+        }
+        return results;
+    }
+
+    private static boolean containsAdKeyword(String caption) {
+        if (caption == null || caption.isBlank()) {
+            return false;
+        }
+        String lower = caption.toLowerCase(Locale.ROOT);
+        return lower.contains("#ad")
+                || lower.contains("#sponsored")
+                || lower.contains("sponsored")
+                || lower.contains("paid partnership")
+                || lower.contains("광고")
+                || lower.contains("협찬")
+                || lower.contains("유료광고")
+                || lower.contains("유료 광고")
+                || lower.contains("스폰서");
+    }
+
+    private static Double roundTwoDecimals(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    record Metrics(
+            int version,
+            String email,
+            Boolean hasLinks,
+            Double uploadFreq,
+            Double recentAvgViews,
+            Double pinnedAvgViews,
+            Double recent18AvgViews,
+            List<String> recentAds,
+            String contactMethod,
+            Double recentAvgComments,
+            Double recentAvgLikes) {
+    }
+}
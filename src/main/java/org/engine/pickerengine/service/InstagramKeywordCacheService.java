@@ -1,8 +1,10 @@
 package org.engine.pickerengine.service;
 
+import org.engine.pickerengine.dto.InstagramKeywordMatch;
 import org.engine.pickerengine.dto.InstagramKeywordResponse;
 import org.engine.pickerengine.entity.InstagramKeywordCacheEntity;
 import org.engine.pickerengine.repository.InstagramKeywordCacheRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -19,17 +21,24 @@ public class InstagramKeywordCacheService {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     private final InstagramKeywordCacheRepository repository;
+    private final InstagramKeywordIndexService indexService;
+    private final MeterRegistry meterRegistry;
 
-    public InstagramKeywordCacheService(InstagramKeywordCacheRepository repository) {
+    public InstagramKeywordCacheService(
+            InstagramKeywordCacheRepository repository,
+            InstagramKeywordIndexService indexService,
+            MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.indexService = indexService;
+        this.meterRegistry = meterRegistry;
     }
 
     public Optional<InstagramKeywordResponse> findCached(String username, String promptVersion) {
         if (username == null || username.isBlank() || promptVersion == null || promptVersion.isBlank()) {
             return Optional.empty();
         }
-        return repository.findByUsernameAndPromptVersion(username, promptVersion)
-                .map(this::toResponse);
+        return recordLookup(repository.findByUsernameAndPromptVersion(username, promptVersion)
+                .map(this::toResponse));
     }
 
     public Optional<InstagramKeywordResponse> findFreshCached(
@@ -39,9 +48,9 @@ public class InstagramKeywordCacheService {
         if (threshold == null) {
             return findCached(username, promptVersion);
         }
-        return repository.findByUsernameAndPromptVersion(username, promptVersion)
+        return recordLookup(repository.findByUsernameAndPromptVersion(username, promptVersion)
                 .filter(entity -> entity.getUpdatedAt() != null && entity.getUpdatedAt().isAfter(threshold))
-                .map(this::toResponse);
+                .map(this::toResponse));
     }
 
     public void save(String username, String promptVersion, InstagramKeywordResponse response) {
@@ -58,6 +67,21 @@ public class InstagramKeywordCacheService {
         entity.setCategories(toJson(response.category()));
         entity.setUpdatedAt(LocalDateTime.now());
         repository.save(entity);
+        indexService.index(username, promptVersion, response);
+    }
+
+    public List<InstagramKeywordMatch> searchByKeywords(
+            List<String> keywords,
+            boolean matchAll,
+            String promptVersion,
+            int limit) {
+        return indexService.search(keywords, matchAll, promptVersion, limit);
+    }
+
+    private Optional<InstagramKeywordResponse> recordLookup(Optional<InstagramKeywordResponse> cached) {
+        meterRegistry.counter("instagram.cache.requests", "cache", "keyword", "result", cached.isPresent() ? "hit" : "miss")
+                .increment();
+        return cached;
     }
 
     private String toJson(List<String> values) {
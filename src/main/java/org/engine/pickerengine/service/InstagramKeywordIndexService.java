@@ -0,0 +1,230 @@
+package org.engine.pickerengine.service;
+
+import org.engine.pickerengine.dto.InstagramKeywordMatch;
+import org.engine.pickerengine.dto.InstagramKeywordResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class InstagramKeywordIndexService {
+
+    static final String KIND_KEYWORD = "keyword";
+    static final String KIND_CATEGORY = "category";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramKeywordIndexService.class);
+    private static final int MAX_LIMIT = 500;
+    private static final String CREATE_INDEX_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS instagram_keyword_index (
+                prompt_version text NOT NULL,
+                keyword text NOT NULL,
+                username text NOT NULL,
+                kind text NOT NULL,
+                PRIMARY KEY (prompt_version, keyword, username, kind)
+            )
+            """;
+    private static final String CREATE_USERNAME_INDEX_SQL = """
+            CREATE INDEX IF NOT EXISTS instagram_keyword_index_username_idx
+            ON instagram_keyword_index (username, prompt_version)
+            """;
+    // Indexes cache rows written before the index existed; rows already indexed are skipped.
+    private static final String BACKFILL_SQL = """
+            INSERT INTO instagram_keyword_index (prompt_version, keyword, username, kind)
+            SELECT c.prompt_version,
+                   lower(regexp_replace(ltrim(btrim(t.value), '#'), '\\s+', ' ', 'g')),
+                   c.username,
+                   t.kind
+            FROM instagram_keyword_cache c
+            CROSS JOIN LATERAL (
+                SELECT value, 'keyword' AS kind
+                FROM jsonb_array_elements_text(
+                        CASE WHEN c.keywords ~ '^\\s*\\[' THEN c.keywords::jsonb ELSE '[]'::jsonb END)
+                UNION ALL
+                SELECT value, 'category' AS kind
+                FROM jsonb_array_elements_text(
+                        CASE WHEN c.categories ~ '^\\s*\\[' THEN c.categories::jsonb ELSE '[]'::jsonb END)
+            ) t
+            WHERE btrim(ltrim(btrim(t.value), '#')) <> ''
+              AND NOT EXISTS (
+                  SELECT 1
+                  FROM instagram_keyword_index i
+                  WHERE i.username = c.username
+                    AND i.prompt_version = c.prompt_version)
+            ON CONFLICT DO NOTHING
+            """;
+    private static final String DELETE_SQL = """
+            DELETE FROM instagram_keyword_index
+            WHERE username = ?
+              AND prompt_version = ?
+            """;
+    private static final String INSERT_SQL = """
+            INSERT INTO instagram_keyword_index (prompt_version, keyword, username, kind)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+    private static final String SEARCH_SQL = """
+            SELECT k.username,
+                   p.full_name,
+                   p.followers,
+                   count(DISTINCT k.keyword) AS match_count,
+                   array_agg(DISTINCT k.keyword) AS matched
+            FROM instagram_keyword_index k
+            LEFT JOIN instagram_profiles p ON p.username = k.username
+            WHERE k.prompt_version = ?
+              AND k.keyword = ANY (?)
+            GROUP BY k.username, p.full_name, p.followers
+            HAVING count(DISTINCT k.keyword) >= ?
+            ORDER BY match_count DESC, p.followers DESC NULLS LAST, k.username
+            LIMIT ?
+            """;
+
+    private final DataSource dataSource;
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
+    private final ReentrantLock initLock = new ReentrantLock();
+
+    public InstagramKeywordIndexService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    void index(String username, String promptVersion, InstagramKeywordResponse response) {
+        if (username == null || username.isBlank() || promptVersion == null || dataSource == null || !ensureInitialized()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement(DELETE_SQL);
+                 PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                delete.setString(1, username);
+                delete.setString(2, promptVersion);
+                delete.executeUpdate();
+                addTerms(insert, username, promptVersion, KIND_KEYWORD, response.keywords());
+                addTerms(insert, username, promptVersion, KIND_CATEGORY, response.category());
+                insert.executeBatch();
+                connection.commit();
+            } catch (SQLException exception) {
+                connection.rollback();
+                throw exception;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to index instagram keywords for {}", username, exception);
+        }
+    }
+
+    public List<InstagramKeywordMatch> search(List<String> keywords, boolean matchAll, String promptVersion, int limit) {
+        List<InstagramKeywordMatch> matches = new ArrayList<>();
+        Set<String> terms = normalizeAll(keywords);
+        if (terms.isEmpty() || promptVersion == null || promptVersion.isBlank()
+                || dataSource == null || !ensureInitialized()) {
+            return matches;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SEARCH_SQL)) {
+            Array termArray = connection.createArrayOf("text", terms.toArray());
+            statement.setString(1, promptVersion.trim());
+            statement.setArray(2, termArray);
+            statement.setInt(3, matchAll ? terms.size() : 1);
+            statement.setInt(4, Math.max(1, Math.min(limit, MAX_LIMIT)));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    int followers = resultSet.getInt(3);
+                    Integer followerCount = resultSet.wasNull() ? null : followers;
+                    matches.add(new InstagramKeywordMatch(
+                            resultSet.getString(1),
+                            resultSet.getString(2),
+                            followerCount,
+                            resultSet.getInt(4),
+                            Arrays.asList((String[]) resultSet.getArray(5).getArray())));
+                }
+            }
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to search instagram keyword index", exception);
+        }
+        return matches;
+    }
+
+    static String normalize(String keyword) {
+        if (keyword == null) {
+            return "";
+        }
+        String trimmed = keyword.trim();
+        while (trimmed.startsWith("#")) {
+            trimmed = trimmed.substring(1);
+        }
+        return trimmed.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> normalizeAll(List<String> keywords) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (keywords == null) {
+            return terms;
+        }
+        for (String keyword : keywords) {
+            String normalized = normalize(keyword);
+            if (!normalized.isEmpty()) {
+                terms.add(normalized);
+            }
+        }
+        return terms;
+    }
+
+    private void addTerms(
+            PreparedStatement insert,
+            String username,
+            String promptVersion,
+            String kind,
+            List<String> values) throws SQLException {
+        for (String term : normalizeAll(values)) {
+            insert.setString(1, promptVersion);
+            insert.setString(2, term);
+            insert.setString(3, username);
+            insert.setString(4, kind);
+            insert.addBatch();
+        }
+    }
+
+    private boolean ensureInitialized() {
+        if (initialized.get()) {
+            return true;
+        }
+        initLock.lock();
+        try {
+            if (initialized.get()) {
+                return true;
+            }
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_INDEX_TABLE_SQL);
+                statement.execute(CREATE_USERNAME_INDEX_SQL);
+                int backfilled = statement.executeUpdate(BACKFILL_SQL);
+                if (backfilled > 0) {
+                    LOGGER.info("Instagram keyword index backfilled (terms={})", backfilled);
+                }
+                initialized.set(true);
+            } catch (SQLException exception) {
+                LOGGER.warn("Failed to initialize instagram keyword index", exception);
+            }
+            return initialized.get();
+        } finally {
+            initLock.unlock();
+        }
+    }
+}
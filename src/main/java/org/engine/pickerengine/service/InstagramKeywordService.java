@@ -1,5 +1,6 @@
 package org.engine.pickerengine.service;
 
+import org.engine.pickerengine.dto.InstagramKeywordMatch;
 import org.engine.pickerengine.dto.InstagramKeywordPromptResponse;
 import org.engine.pickerengine.dto.InstagramKeywordResponse;
 import org.engine.pickerengine.dto.InstagramPost;
@@ -12,6 +13,11 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
 
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -23,6 +29,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class InstagramKeywordService {
@@ -40,6 +47,10 @@ public class InstagramKeywordService {
     private final String model;
     private final int postLimit;
     private final Duration timeout;
+    private final String apiBaseUrl;
+    private final MeterRegistry meterRegistry;
+    private final InstagramModelUsageService usageService;
+    private final Tracer tracer;
     private final String defaultPromptVersion;
 
     public InstagramKeywordService(
@@ -50,7 +61,11 @@ public class InstagramKeywordService {
             @Value("${openai.model:" + DEFAULT_MODEL + "}") String model,
             @Value("${instagram.keyword-post-limit:10}") int postLimit,
             @Value("${instagram.keyword-prompt-version:" + DEFAULT_PROMPT_VERSION + "}") String promptVersion,
-            @Value("${openai.timeout-seconds:20}") int timeoutSeconds) {
+            @Value("${openai.timeout-seconds:20}") int timeoutSeconds,
+            @Value("${openai.base-url:https://api.openai.com}") String apiBaseUrl,
+            MeterRegistry meterRegistry,
+            InstagramModelUsageService usageService,
+            OpenTelemetry openTelemetry) {
         this.instagramService = instagramService;
         this.promptService = promptService;
         this.keywordCacheService = keywordCacheService;
@@ -61,6 +76,12 @@ public class InstagramKeywordService {
                 ? DEFAULT_PROMPT_VERSION
                 : promptVersion.trim();
         this.timeout = Duration.ofSeconds(Math.max(1, timeoutSeconds));
+        this.apiBaseUrl = apiBaseUrl == null || apiBaseUrl.isBlank()
+                ? "https://api.openai.com"
+                : apiBaseUrl.trim().replaceAll("/+$", "");
+        this.meterRegistry = meterRegistry;
+        this.usageService = usageService;
+        this.tracer = InstagramTracing.tracer(openTelemetry);
         this.httpClient = HttpClient.newBuilder()
                 .followRedirects(HttpClient.Redirect.NORMAL)
                 .build();
@@ -77,24 +98,41 @@ public class InstagramKeywordService {
         String normalized = normalizeUsername(userId);
         String resolvedVersion = resolvePromptVersion(version);
         boolean hasCustomPrompt = customPrompt != null && !customPrompt.isBlank();
-        if (!ignoreCache && !hasCustomPrompt) {
-            LocalDateTime threshold = LocalDateTime.now().minusDays(KEYWORD_CACHE_DAYS);
-            InstagramKeywordResponse cached = keywordCacheService
-                    .findFreshCached(normalized, resolvedVersion, threshold)
-                    .orElse(null);
-            if (cached != null) {
-                return cached;
+        return InstagramTracing.inSpan(tracer, "keyword.extract", () -> {
+            Span.current().setAttribute("keyword.prompt_version", resolvedVersion);
+            if (!ignoreCache && !hasCustomPrompt) {
+                LocalDateTime threshold = LocalDateTime.now().minusDays(KEYWORD_CACHE_DAYS);
+                InstagramKeywordResponse cached = InstagramTracing.inSpan(
+                        tracer,
+                        "keyword.cache.lookup",
+                        () -> keywordCacheService.findFreshCached(normalized, resolvedVersion, threshold).orElse(null));
+                if (cached != null) {
+                    Span.current().setAttribute("cache.hit", true);
+                    return cached;
+                }
             }
-        }
-        InstagramProfileWithPosts data = instagramService.fetchProfileWithPosts(normalized);
-        if (data == null || data.profile() == null) {
-            return emptyResponse();
-        }
-        InstagramKeywordResponse response = callModel(data, resolvedVersion, customPrompt);
-        if (!hasCustomPrompt) {
-            keywordCacheService.save(normalized, resolvedVersion, response);
-        }
-        return response;
+            InstagramProfileWithPosts data = instagramService.fetchProfileWithPosts(normalized);
+            if (data == null || data.profile() == null) {
+                return emptyResponse();
+            }
+            InstagramKeywordResponse response = callModel(data, resolvedVersion, customPrompt);
+            if (!hasCustomPrompt && !InstagramRequestDeadline.isExpired()) {
+                InstagramTracing.runInSpan(
+                        tracer,
+                        "keyword.cache.save",
+                        () -> keywordCacheService.save(normalized, resolvedVersion, response));
+            }
+            return response;
+        });
+    }
+
+    public List<InstagramKeywordMatch> searchCreators(
+            List<String> keywords,
+            String match,
+            String version,
+            int limit) {
+        boolean matchAll = match != null && match.trim().equalsIgnoreCase("all");
+        return keywordCacheService.searchByKeywords(keywords, matchAll, resolvePromptVersion(version), limit);
     }
 
     public InstagramKeywordPromptResponse buildPromptPreview(String userId, String version, String customPrompt) {
@@ -112,23 +150,49 @@ public class InstagramKeywordService {
     }
 
     private InstagramKeywordResponse callModel(InstagramProfileWithPosts data, String version, String customPrompt) {
+        if (InstagramRequestDeadline.isExpired()) {
+            return emptyResponse();
+        }
+        String usageVersion = InstagramModelUsageService.promptVersionLabel(version, customPrompt);
+        long startedAt = System.nanoTime();
+        String status = "error";
+        int statusCode = 0;
+        String outcome = "error";
+        Span span = tracer.spanBuilder("openai.responses")
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("openai.service", "keyword")
+                .setAttribute("openai.prompt_version", usageVersion)
+                .startSpan();
         try {
             ObjectNode payload = buildPayload(data, version, customPrompt);
-            HttpRequest request = HttpRequest.newBuilder(URI.create("https://api.openai.com/v1/responses"))
-                    .timeout(timeout)
+            HttpRequest request = HttpRequest.newBuilder(URI.create(apiBaseUrl + "/v1/responses"))
+                    .timeout(InstagramRequestDeadline.clampTimeout(timeout))
                     .header("Authorization", "Bearer " + apiKey)
                     .header("Content-Type", "application/json")
                     .POST(HttpRequest.BodyPublishers.ofString(OBJECT_MAPPER.writeValueAsString(payload)))
                     .build();
             HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            statusCode = response.statusCode();
+            status = String.valueOf(statusCode);
+            outcome = statusCode >= 200 && statusCode < 300 ? "ok" : "http_error";
+            if (statusCode < 200 || statusCode >= 300) {
                 return emptyResponse();
             }
             JsonNode root = OBJECT_MAPPER.readTree(response.body());
+            usageService.record("keyword", usageVersion, model, root.path("usage"));
             String text = extractOutputText(root);
             return parseKeywordResponse(text);
         } catch (Exception ignored) {
+            outcome = "error";
             return emptyResponse();
+        } finally {
+            if (statusCode > 0) {
+                span.setAttribute("http.status_code", (long) statusCode);
+            }
+            span.setAttribute("openai.outcome", outcome);
+            span.end();
+            meterRegistry.timer("openai.requests", "service", "keyword", "model", model, "status", status)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -203,7 +267,7 @@ public class InstagramKeywordService {
         return builder.toString();
     }
 
-    private InstagramKeywordResponse parseKeywordResponse(String text) {
+    InstagramKeywordResponse parseKeywordResponse(String text) {
         if (text == null || text.isBlank()) {
             return emptyResponse();
         }
@@ -0,0 +1,179 @@
+package org.engine.pickerengine.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class InstagramModelUsageService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramModelUsageService.class);
+    private static final String CREATE_USAGE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS openai_usage (
+                bucket_start timestamptz NOT NULL,
+                service text NOT NULL,
+                prompt_version text NOT NULL,
+                model text NOT NULL,
+                calls bigint NOT NULL DEFAULT 0,
+                input_tokens bigint NOT NULL DEFAULT 0,
+                output_tokens bigint NOT NULL DEFAULT 0,
+                cached_tokens bigint NOT NULL DEFAULT 0,
+                updated_at timestamptz NOT NULL DEFAULT now(),
+                PRIMARY KEY (bucket_start, service, prompt_version, model)
+            )
+            """;
+    private static final String UPSERT_USAGE_SQL = """
+            INSERT INTO openai_usage (
+                bucket_start, service, prompt_version, model,
+                calls, input_tokens, output_tokens, cached_tokens, updated_at)
+            VALUES (date_trunc('hour', now()), ?, ?, ?, ?, ?, ?, ?, now())
+            ON CONFLICT (bucket_start, service, prompt_version, model)
+            DO UPDATE SET calls = openai_usage.calls + EXCLUDED.calls,
+                          input_tokens = openai_usage.input_tokens + EXCLUDED.input_tokens,
+                          output_tokens = openai_usage.output_tokens + EXCLUDED.output_tokens,
+                          cached_tokens = openai_usage.cached_tokens + EXCLUDED.cached_tokens,
+                          updated_at = now()
+            """;
+
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final Map<UsageKey, UsageTotals> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public InstagramModelUsageService(DataSource dataSource, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String service, String promptVersion, String model, JsonNode usage) {
+        if (usage == null || !usage.isObject()) {
+            return;
+        }
+        UsageKey key = new UsageKey(
+                labelOrUnknown(service),
+                labelOrUnknown(promptVersion),
+                labelOrUnknown(model));
+        UsageTotals totals = new UsageTotals(
+                1,
+                usage.path("input_tokens").asLong(0),
+                usage.path("output_tokens").asLong(0),
+                usage.path("input_tokens_details").path("cached_tokens").asLong(0));
+        pending.merge(key, totals, UsageTotals::plus);
+        incrementTokens(key, "input", totals.inputTokens());
+        incrementTokens(key, "output", totals.outputTokens());
+        incrementTokens(key, "cached", totals.cachedTokens());
+    }
+
+    public int flush() {
+        if (pending.isEmpty() || dataSource == null) {
+            return 0;
+        }
+        flushLock.lock();
+        try {
+            ensureInitialized();
+            List<Map.Entry<UsageKey, UsageTotals>> drained = new ArrayList<>();
+            for (UsageKey key : List.copyOf(pending.keySet())) {
+                UsageTotals totals = pending.remove(key);
+                if (totals != null) {
+                    drained.add(Map.entry(key, totals));
+                }
+            }
+            if (drained.isEmpty()) {
+                return 0;
+            }
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(UPSERT_USAGE_SQL)) {
+                for (Map.Entry<UsageKey, UsageTotals> entry : drained) {
+                    UsageKey key = entry.getKey();
+                    UsageTotals totals = entry.getValue();
+                    statement.setString(1, key.service());
+                    statement.setString(2, key.promptVersion());
+                    statement.setString(3, key.model());
+                    statement.setLong(4, totals.calls());
+                    statement.setLong(5, totals.inputTokens());
+                    statement.setLong(6, totals.outputTokens());
+                    statement.setLong(7, totals.cachedTokens());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                return drained.size();
+            } catch (SQLException exception) {
+                for (Map.Entry<UsageKey, UsageTotals> entry : drained) {
+                    pending.merge(entry.getKey(), entry.getValue(), UsageTotals::plus);
+                }
+                LOGGER.warn("Failed to flush openai usage ({} rows kept for retry)", drained.size(), exception);
+                return 0;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void incrementTokens(UsageKey key, String type, long tokens) {
+        if (tokens <= 0) {
+            return;
+        }
+        meterRegistry.counter(
+                "openai.tokens",
+                "service", key.service(),
+                "prompt_version", key.promptVersion(),
+                "model", key.model(),
+                "type", type).increment(tokens);
+    }
+
+    private void ensureInitialized() {
+        if (initialized.get()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_USAGE_TABLE_SQL);
+            initialized.set(true);
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to create openai usage table", exception);
+        }
+    }
+
+    static String promptVersionLabel(String resolvedVersion, String customPrompt) {
+        return customPrompt != null && !customPrompt.isBlank() ? "custom" : resolvedVersion;
+    }
+
+    private static String labelOrUnknown(String value) {
+        return value == null || value.isBlank() ? "unknown" : value.trim();
+    }
+
+    private record UsageKey(String service, String promptVersion, String model) {
+    }
+
+    private record UsageTotals(long calls, long inputTokens, long outputTokens, long cachedTokens) {
+
+        private UsageTotals plus(UsageTotals other) {
+            return new UsageTotals(
+                    calls + other.calls,
+                    inputTokens + other.inputTokens,
+                    outputTokens + other.outputTokens,
+                    cachedTokens + other.cachedTokens);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.engine.pickerengine.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class InstagramNegativeCacheService {
+
+    static final String CREATE_NEGATIVE_CACHE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS instagram_negative_cache (
+                username text PRIMARY KEY,
+                failure_kind text NOT NULL,
+                failures integer NOT NULL DEFAULT 1,
+                first_seen_at timestamptz NOT NULL DEFAULT now(),
+                last_seen_at timestamptz NOT NULL DEFAULT now(),
+                recheck_at timestamptz NOT NULL
+            )
+            """;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramNegativeCacheService.class);
+    private static final String RECORD_SQL = """
+            INSERT INTO instagram_negative_cache (
+                username, failure_kind, failures, first_seen_at, last_seen_at, recheck_at)
+            VALUES (?, ?, 1, now(), now(), now() + make_interval(secs => LEAST(?, ?)))
+            ON CONFLICT (username)
+            DO UPDATE SET failures = CASE
+                              WHEN instagram_negative_cache.failure_kind = EXCLUDED.failure_kind
+                              THEN instagram_negative_cache.failures + 1
+                              ELSE 1
+                          END,
+                          failure_kind = EXCLUDED.failure_kind,
+                          last_seen_at = now(),
+                          recheck_at = now() + make_interval(secs => LEAST(
+                              ? * power(2, CASE
+                                  WHEN instagram_negative_cache.failure_kind = EXCLUDED.failure_kind
+                                  THEN instagram_negative_cache.failures
+                                  ELSE 0
+                              END),
+                              ?))
+            RETURNING failures, recheck_at
+            """;
+    private static final String CLEAR_SQL = """
+            DELETE FROM instagram_negative_cache
+            WHERE username = ?
+            """;
+    private static final String LOAD_ACTIVE_SQL = """
+            SELECT username, failure_kind, recheck_at
+            FROM instagram_negative_cache
+            WHERE recheck_at > now()
+            """;
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final long maxRecheckSeconds;
+    private final long reloadIntervalMs;
+    private final Map<String, Entry> active = new ConcurrentHashMap<>();
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
+    private final AtomicLong lastReloadAt = new AtomicLong(0);
+    private final ReentrantLock initLock = new ReentrantLock();
+
+    public InstagramNegativeCacheService(
+            DataSource dataSource,
+            @Value("${instagram.negative-cache.enabled:true}") boolean enabled,
+            @Value("${instagram.negative-cache.max-recheck-hours:720}") long maxRecheckHours,
+            @Value("${instagram.negative-cache.reload-ms:300000}") long reloadIntervalMs) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.maxRecheckSeconds = Math.max(1, maxRecheckHours) * 3600;
+        this.reloadIntervalMs = Math.max(0, reloadIntervalMs);
+    }
+
+    public boolean isSuppressed(String username) {
+        return findKind(username) != null;
+    }
+
+    public FailureKind findKind(String username) {
+        if (!enabled || username == null || username.isBlank()) {
+            return null;
+        }
+        ensureInitialized();
+        reloadIfDue();
+        Entry entry = active.get(normalizeUsername(username));
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.recheckAt().isAfter(Instant.now())) {
+            active.remove(normalizeUsername(username), entry);
+            return null;
+        }
+        return entry.kind();
+    }
+
+    void recordFailure(String username, FailureKind kind) {
+        if (!enabled || username == null || username.isBlank() || dataSource == null) {
+            return;
+        }
+        ensureInitialized();
+        String normalized = normalizeUsername(username);
+        long baseSeconds = kind.baseRecheckSeconds();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(RECORD_SQL)) {
+            statement.setString(1, normalized);
+            statement.setString(2, kind.label());
+            statement.setLong(3, baseSeconds);
+            statement.setLong(4, maxRecheckSeconds);
+            statement.setLong(5, baseSeconds);
+            statement.setLong(6, maxRecheckSeconds);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    Instant recheckAt = resultSet.getTimestamp(2).toInstant();
+                    active.put(normalized, new Entry(kind, recheckAt));
+                    LOGGER.info(
+                            "Instagram negative cache: {} {} (failures={}, recheckAt={})",
+                            normalized,
+                            kind.label(),
+                            resultSet.getInt(1),
+                            recheckAt);
+                }
+            }
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to record instagram negative cache entry for {}", normalized, exception);
+        }
+    }
+
+    void clear(String username) {
+        if (!enabled || username == null || username.isBlank() || dataSource == null) {
+            return;
+        }
+        String normalized = normalizeUsername(username);
+        // The row may have been written by another instance or before a restart, so always delete it.
+        active.remove(normalized);
+        ensureInitialized();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(CLEAR_SQL)) {
+            statement.setString(1, normalized);
+            statement.executeUpdate();
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to clear instagram negative cache entry for {}", normalized, exception);
+        }
+    }
+
+    private void reloadIfDue() {
+        if (dataSource == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long last = lastReloadAt.get();
+        if (last > 0 && now - last < reloadIntervalMs) {
+            return;
+        }
+        if (!lastReloadAt.compareAndSet(last, now)) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LOAD_ACTIVE_SQL)) {
+            Map<String, Entry> loaded = new ConcurrentHashMap<>();
+            while (resultSet.next()) {
+                FailureKind kind = FailureKind.fromLabel(resultSet.getString(2));
+                if (kind != null) {
+                    loaded.put(resultSet.getString(1), new Entry(kind, resultSet.getTimestamp(3).toInstant()));
+                }
+            }
+            active.keySet().retainAll(loaded.keySet());
+            active.putAll(loaded);
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to reload instagram negative cache", exception);
+        }
+    }
+
+    private void ensureInitialized() {
+        if (initialized.get() || dataSource == null) {
+            return;
+        }
+        initLock.lock();
+        try {
+            if (initialized.get()) {
+                return;
+            }
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_NEGATIVE_CACHE_TABLE_SQL);
+                initialized.set(true);
+            } catch (SQLException exception) {
+                LOGGER.warn("Failed to create instagram negative cache table", exception);
+            }
+        } finally {
+            initLock.unlock();
+        }
+    }
+
+    private static String normalizeUsername(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public enum FailureKind {
+        NOT_FOUND("not_found", 24 * 3600),
+        PRIVATE("private", 72 * 3600),
+        ERROR("error", 3600);
+
+        private final String label;
+        private final long baseRecheckSeconds;
+
+        FailureKind(String label, long baseRecheckSeconds) {
+            this.label = label;
+            this.baseRecheckSeconds = baseRecheckSeconds;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        long baseRecheckSeconds() {
+            return baseRecheckSeconds;
+        }
+
+        static FailureKind fromLabel(String label) {
+            for (FailureKind kind : values()) {
+                if (kind.label.equals(label)) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    private record Entry(FailureKind kind, Instant recheckAt) {
+    }
+}
@@ -8,12 +8,18 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
 
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class InstagramPriceService {
@@ -27,6 +33,10 @@ public class InstagramPriceService {
     private final String apiKey;
     private final String model;
     private final Duration timeout;
+    private final String apiBaseUrl;
+    private final MeterRegistry meterRegistry;
+    private final InstagramModelUsageService usageService;
+    private final Tracer tracer;
     private final String defaultPromptVersion;
 
     public InstagramPriceService(
@@ -34,7 +44,11 @@ public class InstagramPriceService {
             @Value("${openai.api-key:}") String apiKey,
             @Value("${openai.model:" + DEFAULT_MODEL + "}") String model,
             @Value("${instagram.price-prompt-version:" + DEFAULT_PROMPT_VERSION + "}") String promptVersion,
-            @Value("${openai.timeout-seconds:20}") int timeoutSeconds) {
+            @Value("${openai.timeout-seconds:20}") int timeoutSeconds,
+            @Value("${openai.base-url:https://api.openai.com}") String apiBaseUrl,
+            MeterRegistry meterRegistry,
+            InstagramModelUsageService usageService,
+            OpenTelemetry openTelemetry) {
         this.promptService = promptService;
         this.apiKey = apiKey == null ? "" : apiKey.trim();
         this.model = model == null || model.isBlank() ? DEFAULT_MODEL : model.trim();
@@ -42,6 +56,12 @@ public class InstagramPriceService {
                 ? DEFAULT_PROMPT_VERSION
                 : promptVersion.trim();
         this.timeout = Duration.ofSeconds(Math.max(1, timeoutSeconds));
+        this.apiBaseUrl = apiBaseUrl == null || apiBaseUrl.isBlank()
+                ? "https://api.openai.com"
+                : apiBaseUrl.trim().replaceAll("/+$", "");
+        this.meterRegistry = meterRegistry;
+        this.usageService = usageService;
+        this.tracer = InstagramTracing.tracer(openTelemetry);
         this.httpClient = HttpClient.newBuilder()
                 .followRedirects(HttpClient.Redirect.NORMAL)
                 .build();
@@ -58,7 +78,7 @@ public class InstagramPriceService {
         }
         String resolvedVersion = resolvePromptVersion(version);
         String prompt = promptService.buildPromptFromTemplate(text, resolveTemplate(resolvedVersion, customPrompt));
-        return callModel(prompt, imageUrl);
+        return callModel(prompt, imageUrl, InstagramModelUsageService.promptVersionLabel(resolvedVersion, customPrompt));
     }
 
     public InstagramPricePromptResponse buildPromptPreview(String text, String version, String customPrompt) {
@@ -68,26 +88,51 @@ public class InstagramPriceService {
         return new InstagramPricePromptResponse(resolved, prompt, template);
     }
 
-    private String callModel(String prompt, String imageUrl) {
+    private String callModel(String prompt, String imageUrl, String usageVersion) {
         if (prompt == null || prompt.isBlank()) {
             return "";
         }
+        if (InstagramRequestDeadline.isExpired()) {
+            return "";
+        }
+        long startedAt = System.nanoTime();
+        String status = "error";
+        int statusCode = 0;
+        String outcome = "error";
+        Span span = tracer.spanBuilder("openai.responses")
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("openai.service", "price")
+                .setAttribute("openai.prompt_version", usageVersion)
+                .startSpan();
         try {
             ObjectNode payload = buildPayload(prompt, imageUrl);
-            HttpRequest request = HttpRequest.newBuilder(URI.create("https://api.openai.com/v1/responses"))
-                    .timeout(timeout)
+            HttpRequest request = HttpRequest.newBuilder(URI.create(apiBaseUrl + "/v1/responses"))
+                    .timeout(InstagramRequestDeadline.clampTimeout(timeout))
                     .header("Authorization", "Bearer " + apiKey)
                     .header("Content-Type", "application/json")
                     .POST(HttpRequest.BodyPublishers.ofString(OBJECT_MAPPER.writeValueAsString(payload)))
                     .build();
             HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            statusCode = response.statusCode();
+            status = String.valueOf(statusCode);
+            outcome = statusCode >= 200 && statusCode < 300 ? "ok" : "http_error";
+            if (statusCode < 200 || statusCode >= 300) {
                 return "";
             }
             JsonNode root = OBJECT_MAPPER.readTree(response.body());
+            usageService.record("price", usageVersion, model, root.path("usage"));
             return extractOutputText(root);
         } catch (Exception ignored) {
+            outcome = "error";
             return "";
+        } finally {
+            if (statusCode > 0) {
+                span.setAttribute("http.status_code", (long) statusCode);
+            }
+            span.setAttribute("openai.outcome", outcome);
+            span.end();
+            meterRegistry.timer("openai.requests", "service", "price", "model", model, "status", status)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -132,7 +177,7 @@ public class InstagramPriceService {
         return builder.toString();
     }
 
-    private JsonNode parsePriceResponse(String text) {
+    JsonNode parsePriceResponse(String text) {
         if (text == null || text.isBlank()) {
             return emptyResponse();
         }
@@ -0,0 +1,375 @@
+package org.engine.pickerengine.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class InstagramRawArchiveService {
+
+    public static final String KIND_PROFILE = "profile";
+    public static final String KIND_FEED = "feed";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramRawArchiveService.class);
+    private static final String CREATE_ARCHIVE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS instagram_raw_archive (
+                id bigserial PRIMARY KEY,
+                username text NOT NULL,
+                kind text NOT NULL,
+                fetched_at timestamptz NOT NULL,
+                content_hash text NOT NULL,
+                segment integer NOT NULL,
+                byte_offset bigint NOT NULL,
+                byte_length integer NOT NULL
+            )
+            """;
+    private static final String CREATE_USERNAME_INDEX_SQL = """
+            CREATE INDEX IF NOT EXISTS instagram_raw_archive_username_idx
+            ON instagram_raw_archive (username, kind, fetched_at DESC)
+            """;
+    private static final String CREATE_HASH_INDEX_SQL = """
+            CREATE INDEX IF NOT EXISTS instagram_raw_archive_hash_idx
+            ON instagram_raw_archive (content_hash)
+            """;
+    private static final String FIND_BY_HASH_SQL = """
+            SELECT segment, byte_offset, byte_length
+            FROM instagram_raw_archive
+            WHERE content_hash = ?
+            LIMIT 1
+            """;
+    private static final String INSERT_SQL = """
+            INSERT INTO instagram_raw_archive (
+                username, kind, fetched_at, content_hash, segment, byte_offset, byte_length)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String FIND_ENTRIES_SQL = """
+            SELECT kind, fetched_at, content_hash, segment, byte_offset, byte_length
+            FROM instagram_raw_archive
+            WHERE username = ?
+            ORDER BY fetched_at DESC, id DESC
+            """;
+    private static final String LIST_USERNAMES_SQL = """
+            SELECT DISTINCT username
+            FROM instagram_raw_archive
+            WHERE kind = 'profile'
+            ORDER BY username
+            """;
+    private static final int RECORD_MAGIC = 0x49475241;
+    private static final int HASH_BYTES = 32;
+    private static final int HEADER_BYTES = 4 + 4 + HASH_BYTES;
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentMaxBytes;
+    private final long fsyncIntervalMs;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
+    private FileChannel currentChannel;
+    private int currentSegment;
+    private long lastForcedAt;
+    private boolean unsynced;
+
+    public InstagramRawArchiveService(
+            DataSource dataSource,
+            @Value("${instagram.archive.enabled:false}") boolean enabled,
+            @Value("${instagram.archive.dir:data/raw-archive}") String directory,
+            @Value("${instagram.archive.segment-max-mb:256}") long segmentMaxMb,
+            @Value("${instagram.archive.fsync-interval-ms:1000}") long fsyncIntervalMs) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.directory = Path.of(directory == null || directory.isBlank() ? "data/raw-archive" : directory.trim());
+        this.segmentMaxBytes = Math.max(1, segmentMaxMb) * 1024 * 1024;
+        this.fsyncIntervalMs = Math.max(0, fsyncIntervalMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void archive(String username, String kind, String body) {
+        if (!enabled || username == null || username.isBlank() || body == null || body.isBlank()) {
+            return;
+        }
+        try {
+            ensureInitialized();
+            byte[] raw = body.getBytes(StandardCharsets.UTF_8);
+            byte[] hash = sha256(raw);
+            String hashHex = HexFormat.of().formatHex(hash);
+            try (Connection connection = dataSource.getConnection()) {
+                Location location = findByHash(connection, hashHex);
+                if (location != null) {
+                    insertEntry(connection, username, kind, hashHex, location);
+                    return;
+                }
+                byte[] compressed = gzip(raw);
+                // Re-check, append and index under the lock so identical concurrent bodies are stored once.
+                appendLock.lock();
+                try {
+                    location = findByHash(connection, hashHex);
+                    if (location == null) {
+                        location = append(hash, compressed);
+                    }
+                    insertEntry(connection, username, kind, hashHex, location);
+                } finally {
+                    appendLock.unlock();
+                }
+            }
+        } catch (IOException | SQLException exception) {
+            LOGGER.warn("Failed to archive instagram {} response for {}", kind, username, exception);
+        }
+    }
+
+    List<String> listUsernames() throws SQLException, IOException {
+        ensureInitialized();
+        List<String> usernames = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LIST_USERNAMES_SQL)) {
+            while (resultSet.next()) {
+                usernames.add(resultSet.getString(1));
+            }
+        }
+        return usernames;
+    }
+
+    List<ArchivedResponse> findResponses(String username) throws SQLException, IOException {
+        ensureInitialized();
+        List<ArchivedResponse> responses = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(FIND_ENTRIES_SQL)) {
+            statement.setString(1, username);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Location location = new Location(resultSet.getInt(4), resultSet.getLong(5), resultSet.getInt(6));
+                    responses.add(new ArchivedResponse(
+                            resultSet.getString(1),
+                            resultSet.getTimestamp(2).toInstant(),
+                            read(location)));
+                }
+            }
+        }
+        return responses;
+    }
+
+    // Forces records that the grouped fsync in append has not covered yet, so a quiet period
+    // never leaves indexed records only in the page cache.
+    public void flushUnsynced() {
+        appendLock.lock();
+        try {
+            if (unsynced && currentChannel != null) {
+                currentChannel.force(false);
+                lastForcedAt = System.currentTimeMillis();
+                unsynced = false;
+            }
+        } catch (IOException exception) {
+            LOGGER.warn("Failed to sync instagram raw archive segment {}", currentSegment, exception);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void insertEntry(
+            Connection connection,
+            String username,
+            String kind,
+            String hashHex,
+            Location location) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            statement.setString(1, username);
+            statement.setString(2, kind);
+            statement.setTimestamp(3, Timestamp.from(Instant.now()));
+            statement.setString(4, hashHex);
+            statement.setInt(5, location.segment());
+            statement.setLong(6, location.offset());
+            statement.setInt(7, location.length());
+            statement.executeUpdate();
+        }
+    }
+
+    private Location findByHash(Connection connection, String hashHex) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(FIND_BY_HASH_SQL)) {
+            statement.setString(1, hashHex);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                return new Location(resultSet.getInt(1), resultSet.getLong(2), resultSet.getInt(3));
+            }
+        }
+    }
+
+    private Location append(byte[] hash, byte[] compressed) throws IOException {
+        appendLock.lock();
+        try {
+            FileChannel channel = openSegmentForAppend(HEADER_BYTES + compressed.length);
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + compressed.length);
+            buffer.putInt(RECORD_MAGIC);
+            buffer.putInt(compressed.length);
+            buffer.put(hash);
+            buffer.put(compressed);
+            buffer.flip();
+            long recordStart = channel.size();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            // Group fsyncs: at most one per interval instead of one per archived response.
+            long now = System.currentTimeMillis();
+            if (fsyncIntervalMs == 0 || now - lastForcedAt >= fsyncIntervalMs) {
+                channel.force(false);
+                lastForcedAt = now;
+                unsynced = false;
+            } else {
+                unsynced = true;
+            }
+            return new Location(currentSegment, recordStart + HEADER_BYTES, compressed.length);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        appendLock.lock();
+        try {
+            if (currentChannel != null) {
+                currentChannel.force(false);
+                currentChannel.close();
+                currentChannel = null;
+            }
+        } catch (IOException exception) {
+            LOGGER.warn("Failed to close instagram raw archive segment {}", currentSegment, exception);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private FileChannel openSegmentForAppend(int recordBytes) throws IOException {
+        if (currentChannel != null && currentChannel.size() + recordBytes > segmentMaxBytes && currentChannel.size() > 0) {
+            currentChannel.force(false);
+            currentChannel.close();
+            currentChannel = null;
+            unsynced = false;
+            currentSegment += 1;
+        }
+        if (currentChannel == null) {
+            currentChannel = FileChannel.open(
+                    segmentPath(currentSegment),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return currentChannel;
+    }
+
+    private String read(Location location) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(location.length());
+        try (FileChannel channel = FileChannel.open(segmentPath(location.segment()), StandardOpenOption.READ)) {
+            long position = location.offset();
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Truncated archive record in segment " + location.segment());
+                }
+                position += read;
+            }
+        }
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(buffer.array()))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void ensureInitialized() throws IOException, SQLException {
+        if (initialized.get()) {
+            return;
+        }
+        appendLock.lock();
+        try {
+            if (initialized.get()) {
+                return;
+            }
+            Files.createDirectories(directory);
+            currentSegment = findLatestSegment();
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_ARCHIVE_TABLE_SQL);
+                statement.execute(CREATE_USERNAME_INDEX_SQL);
+                statement.execute(CREATE_HASH_INDEX_SQL);
+            }
+            initialized.set(true);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private int findLatestSegment() throws IOException {
+        int latest = 0;
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "segment-*.seg")) {
+            for (Path segment : segments) {
+                String name = segment.getFileName().toString();
+                try {
+                    latest = Math.max(latest, Integer.parseInt(name.substring(8, name.length() - 4)));
+                } catch (NumberFormatException ignored) {
+                    // not one of ours
+                }
+            }
+        }
+        return latest;
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("segment-%06d.seg", segment));
+    }
+
+    private static byte[] gzip(byte[] raw) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(raw);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] sha256(byte[] raw) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(raw);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private record Location(int segment, long offset, int length) {
+    }
+
+    record ArchivedResponse(String kind, Instant fetchedAt, String body) {
+    }
+}
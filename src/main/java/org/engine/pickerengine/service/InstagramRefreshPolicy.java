@@ -0,0 +1,57 @@
+package org.engine.pickerengine.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+final class InstagramRefreshPolicy {
+
+    private static final double HOURS_PER_WEEK = 24 * 7;
+    private static final double FOLLOWER_VELOCITY_WEIGHT = 100;
+
+    private InstagramRefreshPolicy() {
+    }
+
+    static long computeIntervalHours(
+            Double postsPerWeek,
+            double followerChangePerDay,
+            long minHours,
+            long maxHours) {
+        long safeMin = Math.max(1, minHours);
+        long safeMax = Math.max(safeMin, maxHours);
+        double interval = postsPerWeek == null || postsPerWeek <= 0
+                ? safeMax
+                : HOURS_PER_WEEK / postsPerWeek;
+        if (followerChangePerDay > 0) {
+            interval = interval / (1 + followerChangePerDay * FOLLOWER_VELOCITY_WEIGHT);
+        }
+        return Math.max(safeMin, Math.min(safeMax, Math.round(interval)));
+    }
+
+    static double followerChangePerDay(int previousFollowers, int currentFollowers, Duration elapsed) {
+        if (previousFollowers <= 0 || elapsed == null || elapsed.isNegative() || elapsed.isZero()) {
+            return 0;
+        }
+        double days = Math.max(elapsed.toMinutes() / 1440.0, 1.0 / 24);
+        return Math.abs(currentFollowers - previousFollowers) / (double) previousFollowers / days;
+    }
+
+    static Double postsPerWeek(long[] takenAtEpochSeconds, Instant now) {
+        if (takenAtEpochSeconds == null || takenAtEpochSeconds.length == 0) {
+            return null;
+        }
+        long earliest = Long.MAX_VALUE;
+        int count = 0;
+        for (long value : takenAtEpochSeconds) {
+            if (value <= 0) {
+                continue;
+            }
+            count += 1;
+            earliest = Math.min(earliest, value);
+        }
+        if (count == 0) {
+            return null;
+        }
+        double days = Math.max(1, (now.getEpochSecond() - earliest) / 86400);
+        return count / (days / 7.0);
+    }
+}
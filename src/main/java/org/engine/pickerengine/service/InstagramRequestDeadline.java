@@ -0,0 +1,47 @@
+package org.engine.pickerengine.service;
+
+import java.time.Duration;
+
+public final class InstagramRequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE_AT = new ThreadLocal<>();
+
+    private InstagramRequestDeadline() {
+    }
+
+    public static void start(long budgetMs) {
+        DEADLINE_AT.set(System.currentTimeMillis() + Math.max(0, budgetMs));
+    }
+
+    public static void clear() {
+        DEADLINE_AT.remove();
+    }
+
+    static boolean isActive() {
+        return DEADLINE_AT.get() != null;
+    }
+
+    static long remainingMs() {
+        Long deadlineAt = DEADLINE_AT.get();
+        if (deadlineAt == null) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, deadlineAt - System.currentTimeMillis());
+    }
+
+    static boolean isExpired() {
+        return remainingMs() <= 0;
+    }
+
+    static boolean allows(long waitMs) {
+        return remainingMs() > Math.max(0, waitMs);
+    }
+
+    static Duration clampTimeout(Duration timeout) {
+        long remaining = remainingMs();
+        if (remaining >= timeout.toMillis()) {
+            return timeout;
+        }
+        return Duration.ofMillis(Math.max(1, remaining));
+    }
+}
@@ -0,0 +1,25 @@
+package org.engine.pickerengine.service;
+
+public final class InstagramRequestLane {
+
+    private static final ThreadLocal<Boolean> INTERACTIVE = new ThreadLocal<>();
+
+    private InstagramRequestLane() {
+    }
+
+    public static void markInteractive() {
+        INTERACTIVE.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        INTERACTIVE.remove();
+    }
+
+    static boolean isInteractive() {
+        return Boolean.TRUE.equals(INTERACTIVE.get());
+    }
+
+    static InstagramSessionPool.Lane current() {
+        return isInteractive() ? InstagramSessionPool.Lane.INTERACTIVE : InstagramSessionPool.Lane.BACKGROUND;
+    }
+}
@@ -0,0 +1,49 @@
+package org.engine.pickerengine.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+final class InstagramResponseBodies {
+
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private InstagramResponseBodies() {
+    }
+
+    static HttpResponse.BodyHandler<String> decompressingString() {
+        return responseInfo -> {
+            String encoding = responseInfo.headers().firstValue("Content-Encoding").orElse("");
+            return HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodySubscribers.ofByteArray(),
+                    body -> decode(body, encoding));
+        };
+    }
+
+    static String decode(byte[] body, String contentEncoding) {
+        String encoding = contentEncoding == null ? "" : contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (body.length == 0 || encoding.isEmpty() || encoding.equals("identity")) {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+        try (InputStream input = open(body, encoding)) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to decode " + encoding + " response body", exception);
+        }
+    }
+
+    private static InputStream open(byte[] body, String encoding) throws IOException {
+        ByteArrayInputStream raw = new ByteArrayInputStream(body);
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(raw, 8192);
+            case "deflate" -> new InflaterInputStream(raw);
+            default -> throw new IOException("Unsupported content encoding: " + encoding);
+        };
+    }
+}
@@ -1,5 +1,7 @@
 package org.engine.pickerengine.service;
 
+import org.engine.pickerengine.config.InstagramProperties;
+import org.engine.pickerengine.dto.InstagramCircuitBreakerState;
 import org.engine.pickerengine.dto.InstagramPost;
 import org.engine.pickerengine.dto.InstagramProfile;
 import org.engine.pickerengine.dto.InstagramProfileWithPosts;
@@ -8,11 +10,19 @@ import org.engine.pickerengine.dto.InstagramSearchPlace;
 import org.engine.pickerengine.dto.InstagramSearchResponse;
 import org.engine.pickerengine.dto.InstagramSearchUser;
 import org.engine.pickerengine.dto.InstagramSearchUsersPage;
-import org.springframework.beans.factory.annotation.Value;
+import org.engine.pickerengine.dto.InstagramSessionHealth;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,46 +32,56 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class InstagramService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(InstagramService.class);
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
     private static final String PROFILE_ENDPOINT =
-            "https://www.instagram.com/api/v1/users/web_profile_info/?username=%s";
+            "/api/v1/users/web_profile_info/?username=%s";
     private static final String USER_FEED_ENDPOINT =
-            "https://www.instagram.com/api/v1/feed/user/%s/?count=%d";
+            "/api/v1/feed/user/%s/?count=%d";
     private static final String KEYWORD_SEARCH_ENDPOINT =
-            "https://www.instagram.com/api/v1/web/search/topsearch/?context=blended&query=%s";
+            "/api/v1/web/search/topsearch/?context=blended&query=%s";
     private static final String HASHTAG_SECTIONS_ENDPOINT =
-            "https://www.instagram.com/api/v1/tags/%s/sections/?tab=recent&count=%d";
+            "/api/v1/tags/%s/sections/?tab=recent&count=%d";
     private static final String HASHTAG_WEB_INFO_ENDPOINT =
-            "https://www.instagram.com/api/v1/tags/web_info/?tag_name=%s";
+            "/api/v1/tags/web_info/?tag_name=%s";
     private static final String FBSEARCH_TOP_SERP_ENDPOINT =
-            "https://www.instagram.com/api/v1/fbsearch/web/top_serp/?enable_metadata=true&query=%s";
+            "/api/v1/fbsearch/web/top_serp/?enable_metadata=true&query=%s";
+    private static final String DEFAULT_API_BASE_URL = "https://www.instagram.com";
     private static final String WEB_APP_ID = "936619743392459";
     private static final String DEFAULT_USER_AGENT = (
             "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) "
                     + "AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.0 Safari/605.1.15");
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
-    private final String sessionId;
+    private final InstagramSessionPool sessionPool;
+    private final String apiBaseUrl;
     private final int maxPosts;
+    private final boolean deepFetchEnabled;
+    private final int deepFetchMaxPosts;
+    private final int deepFetchMaxPages;
+    private final long deepFetchMaxAgeDays;
+    private final boolean incrementalRefreshEnabled;
+    private final long incrementalRecencyWindowDays;
     private final long httpRateLimitMs;
     private final int httpMaxConcurrency;
     private final int httpMaxRetries;
@@ -69,46 +89,99 @@ public class InstagramService {
     private final long httpMaxBackoffMs;
     private final int httpCircuitBreakerThreshold;
     private final long httpCircuitBreakerCooldownMs;
+    private final long httpCircuitBreakerMaxOpenMs;
+    private final int httpSessionQuarantineThreshold;
+    private final long httpSessionQuarantineMaxMs;
+    private final double httpInteractiveReservedFraction;
+    private final int httpInteractiveWeight;
     private final long httpTtlCacheMs;
     private final HttpClient httpClient;
     private final InstagramCacheService cacheService;
-    private final AtomicLong httpCooldownUntil = new AtomicLong(0);
-    private final AtomicInteger consecutive429 = new AtomicInteger(0);
-    private final InstagramHttpRateLimiter httpRateLimiter;
+    private final InstagramRawArchiveService archiveService;
+    private final InstagramNegativeCacheService negativeCache;
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+    private final Map<InstagramEndpointFamily, InstagramCircuitBreaker> circuitBreakers;
     private final SimpleTtlCache<String, JsonNode> userNodeCache;
     private final SimpleTtlCache<String, List<InstagramPost>> userPostsCache;
 
     public InstagramService(
-            @Value("${instagram.sessionid:}") String sessionId,
-            @Value("${instagram.max-posts:18}") int maxPosts,
-            @Value("${instagram.http.rate-limit-ms:1000}") long httpRateLimitMs,
-            @Value("${instagram.http.max-concurrency:1}") int httpMaxConcurrency,
-            @Value("${instagram.http.max-retries:2}") int httpMaxRetries,
-            @Value("${instagram.http.backoff-ms:30000}") long httpBackoffMs,
-            @Value("${instagram.http.max-backoff-ms:180000}") long httpMaxBackoffMs,
-            @Value("${instagram.http.circuit-breaker.threshold:3}") int httpCircuitBreakerThreshold,
-            @Value("${instagram.http.circuit-breaker.cooldown-ms:120000}") long httpCircuitBreakerCooldownMs,
-            @Value("${instagram.http.ttl-cache-ms:0}") long httpTtlCacheMs,
-            InstagramCacheService cacheService) {
-        String resolved = sessionId;
+            InstagramProperties properties,
+            InstagramCacheService cacheService,
+            InstagramRawArchiveService archiveService,
+            InstagramNegativeCacheService negativeCache,
+            MeterRegistry meterRegistry,
+            OpenTelemetry openTelemetry) {
+        InstagramProperties.DeepFetch deepFetch = properties.deepFetch();
+        InstagramProperties.IncrementalRefresh incrementalRefresh = properties.incrementalRefresh();
+        InstagramProperties.Http http = properties.http();
+        InstagramProperties.CircuitBreaker circuitBreaker = http.circuitBreaker();
+        String sessionIds = properties.sessionids();
+        String resolved = properties.sessionid();
         if (resolved == null || resolved.isBlank()) {
             resolved = System.getenv("IG_SESSIONID");
         }
-        this.sessionId = resolved == null ? "" : resolved.trim();
-        this.maxPosts = Math.max(0, maxPosts);
-        this.httpRateLimitMs = Math.max(0, httpRateLimitMs);
-        this.httpMaxConcurrency = Math.max(1, httpMaxConcurrency);
-        this.httpMaxRetries = Math.max(0, httpMaxRetries);
-        this.httpBackoffMs = Math.max(0, httpBackoffMs);
-        this.httpMaxBackoffMs = Math.max(this.httpBackoffMs, httpMaxBackoffMs);
-        this.httpCircuitBreakerThreshold = Math.max(0, httpCircuitBreakerThreshold);
-        this.httpCircuitBreakerCooldownMs = Math.max(0, httpCircuitBreakerCooldownMs);
-        this.httpTtlCacheMs = Math.max(0, httpTtlCacheMs);
+        String apiBaseUrl = properties.apiBaseUrl();
+        this.apiBaseUrl = apiBaseUrl == null || apiBaseUrl.isBlank()
+                ? DEFAULT_API_BASE_URL
+                : apiBaseUrl.trim().replaceAll("/+$", "");
+        this.maxPosts = Math.max(0, properties.maxPosts());
+        this.deepFetchEnabled = deepFetch.enabled();
+        this.deepFetchMaxPosts = Math.max(0, deepFetch.maxPosts());
+        this.deepFetchMaxPages = Math.max(1, deepFetch.maxPages());
+        this.deepFetchMaxAgeDays = Math.max(0, deepFetch.maxAgeDays());
+        this.incrementalRefreshEnabled = incrementalRefresh.enabled();
+        this.incrementalRecencyWindowDays = Math.max(0, incrementalRefresh.recencyWindowDays());
+        this.httpRateLimitMs = Math.max(0, http.rateLimitMs());
+        this.httpMaxConcurrency = Math.max(1, http.maxConcurrency());
+        this.httpMaxRetries = Math.max(0, http.maxRetries());
+        this.httpBackoffMs = Math.max(0, http.backoffMs());
+        this.httpMaxBackoffMs = Math.max(this.httpBackoffMs, http.maxBackoffMs());
+        this.httpCircuitBreakerThreshold = Math.max(0, circuitBreaker.threshold());
+        this.httpCircuitBreakerCooldownMs = Math.max(0, circuitBreaker.cooldownMs());
+        this.httpCircuitBreakerMaxOpenMs = Math.max(this.httpCircuitBreakerCooldownMs, circuitBreaker.maxOpenMs());
+        this.httpSessionQuarantineThreshold = Math.max(0, http.sessionQuarantineThreshold());
+        this.httpSessionQuarantineMaxMs = Math.max(this.httpCircuitBreakerCooldownMs, http.sessionQuarantineMaxMs());
+        this.httpInteractiveReservedFraction = Math.min(0.9, Math.max(0, http.interactiveReservedFraction()));
+        this.httpInteractiveWeight = Math.max(1, http.interactiveWeight());
+        this.httpTtlCacheMs = Math.max(0, http.ttlCacheMs());
         this.httpClient = buildHttpClient();
         this.cacheService = cacheService;
-        this.httpRateLimiter = new InstagramHttpRateLimiter(this.httpMaxConcurrency, this.httpRateLimitMs);
+        this.archiveService = archiveService;
+        this.negativeCache = negativeCache;
+        this.meterRegistry = meterRegistry;
+        this.tracer = InstagramTracing.tracer(openTelemetry);
+        List<String> pooledSessionIds = new ArrayList<>();
+        if (resolved != null && !resolved.isBlank()) {
+            pooledSessionIds.add(resolved.trim());
+        }
+        if (sessionIds != null) {
+            for (String candidate : sessionIds.split(",")) {
+                if (candidate != null && !candidate.isBlank() && !pooledSessionIds.contains(candidate.trim())) {
+                    pooledSessionIds.add(candidate.trim());
+                }
+            }
+        }
+        this.sessionPool = new InstagramSessionPool(
+                pooledSessionIds,
+                this.httpMaxConcurrency,
+                this.httpRateLimitMs,
+                this.httpSessionQuarantineThreshold,
+                this.httpCircuitBreakerCooldownMs,
+                this.httpSessionQuarantineMaxMs,
+                this.httpInteractiveReservedFraction,
+                this.httpInteractiveWeight);
+        this.circuitBreakers = new EnumMap<>(InstagramEndpointFamily.class);
+        for (InstagramEndpointFamily family : InstagramEndpointFamily.values()) {
+            this.circuitBreakers.put(family, new InstagramCircuitBreaker(
+                    family.name().toLowerCase(Locale.ROOT),
+                    this.httpCircuitBreakerThreshold,
+                    this.httpCircuitBreakerCooldownMs,
+                    this.httpCircuitBreakerMaxOpenMs));
+        }
         this.userNodeCache = this.httpTtlCacheMs > 0 ? new SimpleTtlCache<>(this.httpTtlCacheMs) : null;
         this.userPostsCache = this.httpTtlCacheMs > 0 ? new SimpleTtlCache<>(this.httpTtlCacheMs) : null;
+        registerGauges();
     }
 
     public List<InstagramProfile> fetchProfiles(String userId) {
@@ -121,16 +194,18 @@ public class InstagramService {
             return new InstagramProfileWithPosts(null, List.of());
         }
         String normalized = normalizeUsername(userId);
-        LocalDateTime threshold = LocalDateTime.now().minusMonths(6);
-        return cacheService.findFreshProfile(normalized, threshold)
+        return InstagramTracing.inSpan(tracer, "instagram.profile.fetch", () -> cacheService
+                .findFreshProfile(normalized)
                 .map(cached -> {
                     LOGGER.info("Instagram cache hit: {}", normalized);
+                    Span.current().setAttribute("cache.hit", true);
                     return cached;
                 })
                 .orElseGet(() -> {
                     LOGGER.info("Instagram cache miss: {}", normalized);
-                    return fetchAndCache(normalized);
-                });
+                    Span.current().setAttribute("cache.hit", false);
+                    return fetchAndCacheOrStale(normalized);
+                }));
     }
 
     public String fetchAccountId(String userId) {
@@ -146,13 +221,13 @@ public class InstagramService {
         if (query == null || query.isBlank()) {
             return emptySearchResponse(query);
         }
-        if (sessionId.isBlank()) {
+        if (!sessionPool.hasCredentials()) {
             LOGGER.warn("Instagram keyword search skipped (missing session id): {}", query);
             return emptySearchResponse(query);
         }
         String normalized = query.trim();
         String encodedQuery = URLEncoder.encode(normalized, StandardCharsets.UTF_8);
-        URI uri = URI.create(String.format(KEYWORD_SEARCH_ENDPOINT, encodedQuery));
+        URI uri = endpointUri(KEYWORD_SEARCH_ENDPOINT, encodedQuery);
         String referer = "https://www.instagram.com/explore/search/keyword/?q=" + encodedQuery;
         HttpRequest request = baseRequest(uri, referer)
                 .GET()
@@ -196,11 +271,10 @@ public class InstagramService {
             return null;
         }
         String normalized = normalizeUsername(userId);
-        LocalDateTime threshold = LocalDateTime.now().minusMonths(6);
-        return cacheService.findFreshProfile(normalized, threshold)
+        return cacheService.findFreshProfile(normalized)
                 .map(InstagramProfileWithPosts::profile)
                 .orElseGet(() -> {
-                    InstagramProfileWithPosts fetched = fetchAndCache(normalized);
+                    InstagramProfileWithPosts fetched = fetchAndCacheOrStale(normalized);
                     return fetched.profile();
                 });
     }
@@ -221,42 +295,127 @@ public class InstagramService {
                 });
     }
 
+    private InstagramProfileWithPosts fetchAndCacheOrStale(String userId) {
+        InstagramProfileWithPosts fetched = fetchAndCache(userId);
+        if (fetched.profile() != null || !InstagramRequestLane.isInteractive()) {
+            return fetched;
+        }
+        return cacheService.findProfile(userId)
+                .map(stale -> {
+                    LOGGER.info("Instagram stale cache served: {}", userId);
+                    return stale;
+                })
+                .orElse(fetched);
+    }
+
     private InstagramProfileWithPosts fetchAndCache(String userId) {
+        InstagramNegativeCacheService.FailureKind suppressed = negativeCache == null
+                ? null
+                : negativeCache.findKind(userId);
+        if (suppressed != null) {
+            meterRegistry.counter("instagram.cache.requests", "cache", "negative", "result", "hit").increment();
+            LOGGER.info("Instagram negative cache hit: {} ({})", userId, suppressed.label());
+            if (suppressed == InstagramNegativeCacheService.FailureKind.PRIVATE) {
+                return cacheService.findProfile(userId)
+                        .orElseGet(() -> new InstagramProfileWithPosts(null, List.of()));
+            }
+            return new InstagramProfileWithPosts(null, List.of());
+        }
         JsonNode user = fetchUserNodeForUsername(userId);
         if (user == null || user.isNull()) {
             LOGGER.warn("Instagram fetch failed: {}", userId);
             return new InstagramProfileWithPosts(null, List.of());
         }
         InstagramProfile profile = buildProfile(user, userId);
+        if (profile.isPrivate()) {
+            // Private feeds always fail; refresh the profile, keep known posts, skip the feed request.
+            InstagramTracing.runInSpan(tracer, "instagram.cache.save_profile", () -> cacheService.saveProfile(profile));
+            return cacheService.findProfile(userId)
+                    .orElseGet(() -> new InstagramProfileWithPosts(profile, List.of()));
+        }
+        if (deepFetchEnabled || incrementalRefreshEnabled) {
+            return fetchAndMergeFeed(user, profile, userId);
+        }
         List<InstagramPost> posts = fetchPosts(user, userId);
-        InstagramProfileWithPosts saved = cacheService.saveProfileWithPosts(profile, posts);
+        // Write spans wrap the transactional proxy so the commit, where JPA flushes, is included.
+        InstagramProfileWithPosts saved = InstagramTracing.inSpan(
+                tracer,
+                "instagram.cache.save_profile_with_posts",
+                () -> cacheService.saveProfileWithPosts(profile, posts));
         LOGGER.info("Instagram cache stored: {} (posts={})", userId, posts.size());
         return saved;
     }
 
+    private InstagramProfileWithPosts fetchAndMergeFeed(JsonNode user, InstagramProfile profile, String username) {
+        Set<String> knownPostIds = cacheService.findPostIds(username);
+        FeedMergeResult result = mergeFeed(user, username, knownPostIds);
+        InstagramTracing.runInSpan(tracer, "instagram.cache.save_profile", () -> cacheService.saveProfile(profile));
+        LOGGER.info(
+                "Instagram feed merged: {} (newPosts={}, refreshedPosts={}, removedPosts={}, knownPosts={}, pages={})",
+                username,
+                result.added(),
+                result.refreshed(),
+                result.removed(),
+                knownPostIds.size(),
+                result.pages());
+        return cacheService.findProfile(username)
+                .orElseGet(() -> new InstagramProfileWithPosts(profile, List.of()));
+    }
+
     private JsonNode fetchUserNodeForUsername(String userId) {
-        if (userId == null || userId.isBlank() || sessionId.isBlank()) {
+        if (userId == null || userId.isBlank() || !sessionPool.hasCredentials()) {
             return null;
         }
         JsonNode cached = getCachedUserNode(userId);
         if (cached != null) {
             return cached;
         }
-        URI uri = URI.create(String.format(PROFILE_ENDPOINT, userId));
+        if (negativeCache != null && negativeCache.isSuppressed(userId)) {
+            return null;
+        }
+        URI uri = endpointUri(PROFILE_ENDPOINT, userId);
         HttpRequest request = baseRequest(uri, "https://www.instagram.com/" + userId + "/")
                 .GET()
                 .build();
 
         try {
             HttpResponse<String> response = sendWithBackoff(request);
-            if (response.statusCode() == 404) {
+            int status = response.statusCode();
+            if (status == 404 || status == 410) {
+                recordNegative(userId, InstagramNegativeCacheService.FailureKind.NOT_FOUND);
                 return null;
             }
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            if (status < 200 || status >= 300) {
+                // Other failures (401/403 from a bad session, 429, 5xx) say nothing about the username;
+                // the session pool and breaker deal with them.
+                return null;
+            }
+            archiveRaw(userId, InstagramRawArchiveService.KIND_PROFILE, response.body());
+            JsonNode root;
+            try {
+                root = OBJECT_MAPPER.readTree(response.body());
+            } catch (JsonProcessingException exception) {
+                // An HTML body is the login wall of a bad session; other garbage is specific to this profile.
+                if (!response.body().stripLeading().startsWith("<")) {
+                    recordNegative(userId, InstagramNegativeCacheService.FailureKind.ERROR);
+                }
                 return null;
             }
-            JsonNode root = OBJECT_MAPPER.readTree(response.body());
             JsonNode user = extractUserNode(root);
+            if (user == null) {
+                // Neither graphql.user nor data.user: a payload shape this parser does not know.
+                recordNegative(userId, InstagramNegativeCacheService.FailureKind.ERROR);
+                return null;
+            }
+            if (user.isNull()) {
+                recordNegative(userId, InstagramNegativeCacheService.FailureKind.NOT_FOUND);
+                return null;
+            }
+            if (booleanValue(user, "is_private")) {
+                recordNegative(userId, InstagramNegativeCacheService.FailureKind.PRIVATE);
+            } else if (negativeCache != null) {
+                negativeCache.clear(userId);
+            }
             cacheUserNode(userId, user);
             return user;
         } catch (Exception ignored) {
@@ -265,7 +424,7 @@ public class InstagramService {
     }
 
     private List<InstagramPost> fetchPosts(JsonNode user, String username) {
-        if (user == null || user.isNull() || maxPosts <= 0 || sessionId.isBlank()) {
+        if (user == null || user.isNull() || maxPosts <= 0 || !sessionPool.hasCredentials()) {
             return List.of();
         }
         String userId = textValue(user, "id");
@@ -276,7 +435,7 @@ public class InstagramService {
         if (cached != null) {
             return cached;
         }
-        URI uri = URI.create(String.format(USER_FEED_ENDPOINT, userId, maxPosts));
+        URI uri = endpointUri(USER_FEED_ENDPOINT, userId, maxPosts);
         HttpRequest request = baseRequest(uri, "https://www.instagram.com/" + username + "/")
                 .GET()
                 .build();
@@ -289,6 +448,7 @@ public class InstagramService {
             if (response.statusCode() < 200 || response.statusCode() >= 300) {
                 return List.of();
             }
+            archiveRaw(username, InstagramRawArchiveService.KIND_FEED, response.body());
             JsonNode root = OBJECT_MAPPER.readTree(response.body());
             JsonNode items = root.path("items");
             if (!items.isArray()) {
@@ -311,7 +471,147 @@ public class InstagramService {
         }
     }
 
-    private InstagramProfile buildProfile(JsonNode user, String fallbackUsername) {
+    private FeedMergeResult mergeFeed(JsonNode user, String username, Set<String> knownPostIds) {
+        int postLimit = deepFetchEnabled ? deepFetchMaxPosts : maxPosts;
+        if (user == null || user.isNull() || postLimit <= 0 || !sessionPool.hasCredentials()) {
+            return new FeedMergeResult(0, 0, 0, 0);
+        }
+        String userId = textValue(user, "id");
+        if (userId == null || userId.isBlank()) {
+            return new FeedMergeResult(0, 0, 0, 0);
+        }
+        int pageSize = clamp(maxPosts > 0 ? maxPosts : 12, 1, 50);
+        int maxPages = deepFetchEnabled ? deepFetchMaxPages : 1;
+        long nowEpoch = Instant.now().getEpochSecond();
+        long cutoffEpoch = deepFetchEnabled && deepFetchMaxAgeDays > 0
+                ? nowEpoch - Duration.ofDays(deepFetchMaxAgeDays).toSeconds()
+                : 0;
+        long recencyEpoch = incrementalRefreshEnabled && incrementalRecencyWindowDays > 0
+                ? nowEpoch - Duration.ofDays(incrementalRecencyWindowDays).toSeconds()
+                : Long.MAX_VALUE;
+        String referer = "https://www.instagram.com/" + username + "/";
+        String nextMaxId = null;
+        Set<String> seenPostIds = new HashSet<>();
+        long windowStartEpoch = Long.MAX_VALUE;
+        int added = 0;
+        int refreshed = 0;
+        int pages = 0;
+
+        while (pages < maxPages && added < postLimit) {
+            JsonNode root = fetchJson(
+                    buildUserFeedUri(userId, pageSize, nextMaxId),
+                    referer,
+                    username,
+                    InstagramRawArchiveService.KIND_FEED);
+            if (root == null) {
+                break;
+            }
+            pages += 1;
+            JsonNode items = root.path("items");
+            if (!items.isArray()) {
+                break;
+            }
+            FeedPage page = scanFeedPage(
+                    items,
+                    knownPostIds,
+                    seenPostIds,
+                    recencyEpoch,
+                    cutoffEpoch,
+                    postLimit - added);
+            windowStartEpoch = Math.min(windowStartEpoch, page.oldestTakenAt());
+            if (!page.newPosts().isEmpty()) {
+                InstagramTracing.runInSpan(
+                        tracer,
+                        "instagram.cache.save_posts",
+                        () -> cacheService.savePosts(username, page.newPosts()));
+                added += page.newPosts().size();
+            }
+            if (incrementalRefreshEnabled && !page.recentKnownPosts().isEmpty()) {
+                InstagramTracing.runInSpan(
+                        tracer,
+                        "instagram.cache.update_post_counts",
+                        () -> cacheService.updatePostCounts(page.recentKnownPosts()));
+                refreshed += page.recentKnownPosts().size();
+            }
+            if (page.reachedEnd()) {
+                break;
+            }
+            String cursor = textValue(root, "next_max_id");
+            if (cursor == null || !booleanValue(root, "more_available")) {
+                break;
+            }
+            nextMaxId = cursor;
+        }
+        // Feed pages are contiguous from the newest post, so anything cached in that span but not returned is gone.
+        Instant windowStart = windowStartEpoch == Long.MAX_VALUE ? null : Instant.ofEpochSecond(windowStartEpoch);
+        int removed = InstagramTracing.inSpan(
+                tracer,
+                "instagram.cache.reconcile_posts",
+                () -> cacheService.reconcilePosts(username, seenPostIds, windowStart));
+        return new FeedMergeResult(added, refreshed, removed, pages);
+    }
+
+    static FeedPage scanFeedPage(
+            JsonNode items,
+            Set<String> knownPostIds,
+            Set<String> seenPostIds,
+            long recencyEpoch,
+            long cutoffEpoch,
+            int remaining) {
+        List<InstagramPost> newPosts = new ArrayList<>();
+        List<InstagramPost> recentKnownPosts = new ArrayList<>();
+        long oldestTakenAt = Long.MAX_VALUE;
+        boolean reachedEnd = false;
+        for (JsonNode item : items) {
+            if (newPosts.size() >= remaining) {
+                reachedEnd = true;
+                break;
+            }
+            InstagramPost post = parsePost(item);
+            if (post == null || !seenPostIds.add(post.postId())) {
+                continue;
+            }
+            boolean pinned = isPinned(item);
+            long takenAt = item.path("taken_at").asLong(0);
+            if (!pinned && takenAt > 0) {
+                oldestTakenAt = Math.min(oldestTakenAt, takenAt);
+            }
+            if (knownPostIds.contains(post.postId())) {
+                if (pinned || takenAt >= recencyEpoch) {
+                    recentKnownPosts.add(post);
+                    continue;
+                }
+                reachedEnd = true;
+                break;
+            }
+            if (!pinned && cutoffEpoch > 0 && takenAt > 0 && takenAt < cutoffEpoch) {
+                reachedEnd = true;
+                break;
+            }
+            newPosts.add(post);
+        }
+        return new FeedPage(newPosts, recentKnownPosts, oldestTakenAt, reachedEnd);
+    }
+
+    private URI endpointUri(String endpoint, Object... args) {
+        return URI.create(apiBaseUrl + String.format(endpoint, args));
+    }
+
+    private URI buildUserFeedUri(String userId, int count, String maxId) {
+        StringBuilder url = new StringBuilder(apiBaseUrl + String.format(USER_FEED_ENDPOINT, userId, count));
+        if (maxId != null && !maxId.isBlank()) {
+            url.append("&max_id=")
+                    .append(URLEncoder.encode(maxId, StandardCharsets.UTF_8));
+        }
+        return URI.create(url.toString());
+    }
+
+    static boolean isPinned(JsonNode item) {
+        JsonNode pinnedUsers = item.path("timeline_pinned_user_ids");
+        return pinnedUsers.isArray() && pinnedUsers.size() > 0;
+    }
+
+    static InstagramProfile buildProfile(JsonNode user, String fallbackUsername) {
         return new InstagramProfile(
                 textValue(user, "biography"),
                 textValue(user, "category_name"),
@@ -327,7 +627,7 @@ public class InstagramService {
                 textValue(user, "username", fallbackUsername));
     }
 
-    private InstagramPost parsePost(JsonNode item) {
+    static InstagramPost parsePost(JsonNode item) {
         if (item == null || item.isNull()) {
             return null;
         }
@@ -341,7 +641,7 @@ public class InstagramService {
         if (captionNode.isObject()) {
             caption = textValue(captionNode, "text", "");
         }
-        String takenAt = formatTakenAt(item.path("taken_at").asLong(0));
+        long takenAt = Math.max(0, item.path("taken_at").asLong(0));
 
         JsonNode baseMedia = item;
         if (item.path("media_type").asInt() == 8
@@ -384,7 +684,7 @@ public class InstagramService {
                 mediaType);
     }
 
-    private static JsonNode extractUserNode(JsonNode root) {
+    static JsonNode extractUserNode(JsonNode root) {
         if (root == null || root.isNull()) {
             return null;
         }
@@ -445,15 +745,6 @@ public class InstagramService {
         return value == null || value.isNull() ? null : value.asInt();
     }
 
-    private static String formatTakenAt(long epochSeconds) {
-        if (epochSeconds <= 0) {
-            return null;
-        }
-        return Instant.ofEpochSecond(epochSeconds)
-                .atOffset(ZoneOffset.UTC)
-                .format(ISO_FORMATTER);
-    }
-
     private static String firstCandidateUrl(JsonNode media) {
         if (media == null || media.isNull()) {
             return null;
@@ -548,7 +839,7 @@ public class InstagramService {
     }
 
     private List<InstagramSearchUser> fetchFbSearchUsers(String query, int pages) {
-        if (sessionId.isBlank()) {
+        if (!sessionPool.hasCredentials()) {
             LOGGER.warn("Instagram fbsearch skipped (missing session id): {}", query);
             return List.of();
         }
@@ -587,12 +878,12 @@ public class InstagramService {
         return results;
     }
 
-    private static URI buildFbSearchUri(
+    private URI buildFbSearchUri(
             String encodedQuery,
             String nextMaxId,
             String rankToken,
             String searchSessionId) {
-        StringBuilder url = new StringBuilder(String.format(FBSEARCH_TOP_SERP_ENDPOINT, encodedQuery));
+        StringBuilder url = new StringBuilder(apiBaseUrl + String.format(FBSEARCH_TOP_SERP_ENDPOINT, encodedQuery));
         if (searchSessionId != null && !searchSessionId.isBlank()) {
             url.append("&search_session_id=")
                     .append(URLEncoder.encode(searchSessionId, StandardCharsets.UTF_8));
@@ -667,7 +958,7 @@ public class InstagramService {
     }
 
     private List<InstagramSearchUser> fetchHashtagFeedUsers(String tagName, int feedCount) {
-        if (sessionId.isBlank()) {
+        if (!sessionPool.hasCredentials()) {
             LOGGER.warn("Instagram hashtag feed skipped (missing session id): {}", tagName);
             return List.of();
         }
@@ -678,10 +969,10 @@ public class InstagramService {
         int resolvedCount = clamp(feedCount, 1, 50);
         String encoded = URLEncoder.encode(normalized, StandardCharsets.UTF_8);
         String referer = "https://www.instagram.com/explore/tags/" + encoded + "/";
-        URI uri = URI.create(String.format(HASHTAG_SECTIONS_ENDPOINT, encoded, resolvedCount));
+        URI uri = endpointUri(HASHTAG_SECTIONS_ENDPOINT, encoded, resolvedCount);
         JsonNode root = fetchJson(uri, referer);
         if (root == null) {
-            URI fallback = URI.create(String.format(HASHTAG_WEB_INFO_ENDPOINT, encoded));
+            URI fallback = endpointUri(HASHTAG_WEB_INFO_ENDPOINT, encoded);
             root = fetchJson(fallback, referer);
         }
         if (root == null) {
@@ -692,6 +983,10 @@ public class InstagramService {
     }
 
     private JsonNode fetchJson(URI uri, String referer) {
+        return fetchJson(uri, referer, null, null);
+    }
+
+    private JsonNode fetchJson(URI uri, String referer, String archiveUsername, String archiveKind) {
         HttpRequest request = baseRequest(uri, referer)
                 .GET()
                 .build();
@@ -703,12 +998,27 @@ public class InstagramService {
             if (response.statusCode() < 200 || response.statusCode() >= 300) {
                 return null;
             }
+            if (archiveUsername != null) {
+                archiveRaw(archiveUsername, archiveKind, response.body());
+            }
             return OBJECT_MAPPER.readTree(response.body());
         } catch (Exception ignored) {
             return null;
         }
     }
 
+    private void recordNegative(String username, InstagramNegativeCacheService.FailureKind kind) {
+        if (negativeCache != null) {
+            negativeCache.recordFailure(username, kind);
+        }
+    }
+
+    private void archiveRaw(String username, String kind, String body) {
+        if (archiveService != null) {
+            archiveService.archive(username, kind, body);
+        }
+    }
+
     private static List<JsonNode> collectMediaNodesFromTagResponse(JsonNode root) {
         List<JsonNode> medias = new ArrayList<>();
         collectMediaFromSections(root.path("sections"), medias);
@@ -884,7 +1194,9 @@ public class InstagramService {
         if (userNodeCache == null) {
             return null;
         }
-        return userNodeCache.get(userId);
+        JsonNode cached = userNodeCache.get(userId);
+        recordCacheLookup("user_node", cached != null);
+        return cached;
     }
 
     private void cacheUserNode(String userId, JsonNode user) {
@@ -898,7 +1210,9 @@ public class InstagramService {
         if (userPostsCache == null) {
             return null;
         }
-        return userPostsCache.get(userId);
+        List<InstagramPost> cached = userPostsCache.get(userId);
+        recordCacheLookup("user_posts", cached != null);
+        return cached;
     }
 
     private void cacheUserPosts(String userId, List<InstagramPost> posts) {
@@ -913,48 +1227,132 @@ public class InstagramService {
                 .timeout(java.time.Duration.ofSeconds(30))
                 .header("User-Agent", DEFAULT_USER_AGENT)
                 .header("Accept", "application/json, text/plain, */*")
+                .header("Accept-Encoding", InstagramResponseBodies.ACCEPT_ENCODING)
                 .header("X-Requested-With", "XMLHttpRequest")
                 .header("X-IG-App-ID", WEB_APP_ID)
                 .header("Referer", referer);
-        if (!sessionId.isBlank()) {
-            builder.header("Cookie", "sessionid=" + sessionId);
-        }
         return builder;
     }
 
+    public List<InstagramSessionHealth> getSessionHealth() {
+        return sessionPool.health();
+    }
+
+    public List<InstagramCircuitBreakerState> getCircuitBreakers() {
+        List<InstagramCircuitBreakerState> results = new ArrayList<>();
+        for (InstagramCircuitBreaker breaker : circuitBreakers.values()) {
+            results.add(breaker.snapshot());
+        }
+        return results;
+    }
+
     private HttpResponse<String> sendWithBackoff(HttpRequest request) throws Exception {
+        InstagramEndpointFamily family = InstagramEndpointFamily.fromUri(request.uri());
+        Span span = tracer.spanBuilder("instagram.http." + family.name().toLowerCase(Locale.ROOT))
+                .setSpanKind(SpanKind.CLIENT)
+                .startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            HttpResponse<String> response = sendWithRetries(request, family, span);
+            span.setAttribute("http.status_code", response.statusCode());
+            return response;
+        } catch (Exception exception) {
+            InstagramTracing.markFailed(span, exception);
+            throw exception;
+        } finally {
+            span.end();
+        }
+    }
+
+    private HttpResponse<String> sendWithRetries(
+            HttpRequest request,
+            InstagramEndpointFamily family,
+            Span span) throws Exception {
+        InstagramCircuitBreaker breaker = circuitBreakers.get(family);
+        InstagramSessionPool.Lane lane = InstagramRequestLane.current();
+        String endpoint = family.name().toLowerCase(Locale.ROOT);
+        String laneTag = lane.name().toLowerCase(Locale.ROOT);
+        span.setAttribute("instagram.lane", laneTag);
         int attempt = 0;
-        int maxAttempts = httpMaxRetries + 1;
+        HttpResponse<String> lastResponse = null;
         while (true) {
-            waitForCooldown();
+            span.setAttribute("instagram.attempts", attempt + 1);
+            if (!breaker.tryAcquire(System.currentTimeMillis())) {
+                span.setAttribute("instagram.circuit_open", true);
+                meterRegistry.counter("instagram.http.rejected", "endpoint", endpoint, "reason", "circuit_open")
+                        .increment();
+                if (lastResponse != null) {
+                    return lastResponse;
+                }
+                throw new CircuitOpenException(family, breaker.millisUntilRetry(System.currentTimeMillis()));
+            }
             HttpResponse<String> response;
-            boolean acquired = false;
+            InstagramSessionPool.Lease lease = null;
+            long sendStartedAt = 0;
             try {
-                httpRateLimiter.acquire();
-                acquired = true;
-                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                long waitStartedAt = System.nanoTime();
+                Span waitSpan = InstagramTracing.startWait(tracer, "instagram.lease.wait", "lease");
+                try {
+                    lease = sessionPool.acquire(lane, family, InstagramRequestDeadline.remainingMs());
+                } finally {
+                    waitSpan.end();
+                }
+                meterRegistry.timer("instagram.http.lease.wait", "endpoint", endpoint, "lane", laneTag)
+                        .record(System.nanoTime() - waitStartedAt, TimeUnit.NANOSECONDS);
+                if (lease == null) {
+                    breaker.onCancelled();
+                    meterRegistry.counter("instagram.http.rejected", "endpoint", endpoint, "reason", "deadline")
+                            .increment();
+                    if (lastResponse != null) {
+                        return lastResponse;
+                    }
+                    throw new DeadlineExceededException(request.uri());
+                }
+                sendStartedAt = System.nanoTime();
+                Span attemptSpan = tracer.spanBuilder("instagram.http.attempt")
+                        .setAttribute("instagram.session", lease.label())
+                        .setAttribute("instagram.attempt", attempt + 1)
+                        .startSpan();
+                try {
+                    response = httpClient.send(
+                            withSession(request, lease),
+                            InstagramResponseBodies.decompressingString());
+                    attemptSpan.setAttribute("http.status_code", response.statusCode());
+                } catch (Exception exception) {
+                    InstagramTracing.markFailed(attemptSpan, exception);
+                    throw exception;
+                } finally {
+                    attemptSpan.end();
+                }
+                recordHttpRequest(endpoint, laneTag, String.valueOf(response.statusCode()), sendStartedAt);
+            } catch (InterruptedException exception) {
+                breaker.onCancelled();
+                throw exception;
+            } catch (Exception exception) {
+                breaker.onFailure(System.currentTimeMillis());
+                if (sendStartedAt > 0) {
+                    recordHttpRequest(endpoint, laneTag, "io_error", sendStartedAt);
+                }
+                throw exception;
             } finally {
-                if (acquired) {
-                    httpRateLimiter.release();
+                if (lease != null) {
+                    lease.release();
                 }
             }
+            lastResponse = response;
             int status = response.statusCode();
-            if (status != 429 && status < 500) {
-                consecutive429.set(0);
+            if (isSessionRejected(response)) {
+                // The session is logged out or challenged; that says nothing about the endpoint family.
+                lease.onAuthFailure(System.currentTimeMillis(), status);
+                breaker.onCancelled();
                 return response;
             }
-            boolean is429 = status == 429;
-            if (is429) {
-                int streak = consecutive429.incrementAndGet();
-                if (httpCircuitBreakerThreshold > 0 && streak >= httpCircuitBreakerThreshold) {
-                    applyCooldown(httpCircuitBreakerCooldownMs);
-                }
-            } else {
-                consecutive429.set(0);
-            }
-            if (attempt >= httpMaxRetries) {
+            if (status != 429 && status < 500) {
+                lease.onSuccess();
+                breaker.onSuccess(System.currentTimeMillis());
                 return response;
             }
+            breaker.onFailure(System.currentTimeMillis());
+            boolean is429 = status == 429;
             String retryAfterHeader = response.headers().firstValue("Retry-After").orElse("");
             long retryAfterMs = InstagramHttpBackoffPolicy.parseRetryAfterMs(retryAfterHeader);
             long delayMs = InstagramHttpBackoffPolicy.computeDelayMs(
@@ -965,68 +1363,108 @@ public class InstagramService {
             if (is429 && delayMs < 1000) {
                 delayMs = 1000;
             }
+            if (is429) {
+                lease.onThrottled(System.currentTimeMillis(), delayMs);
+            }
+            if (attempt >= httpMaxRetries) {
+                return response;
+            }
+            long retryWaitMs = is429 && sessionPool.size() > 1 ? 0 : delayMs;
+            if (!InstagramRequestDeadline.allows(retryWaitMs)) {
+                LOGGER.info("Instagram retry skipped (endpoint={}, waitMs={}, deadline exceeded)", request.uri(), delayMs);
+                return response;
+            }
+            meterRegistry.counter(
+                    "instagram.http.retries",
+                    "endpoint", endpoint,
+                    "reason", is429 ? "throttled" : "server_error").increment();
             if (is429) {
                 LOGGER.warn(
-                        "Instagram 429 rate limit (endpoint={}, retryCount={}, waitMs={}, retryAfter={})",
+                        "Instagram 429 rate limit (endpoint={}, session={}, retryCount={}, waitMs={}, retryAfter={})",
                         request.uri(),
+                        lease.label(),
                         attempt + 1,
                         delayMs,
                         retryAfterMs > 0);
+            } else {
+                Span sleepSpan = InstagramTracing.startWait(tracer, "instagram.backoff.sleep", "backoff");
+                sleepSpan.setAttribute("wait.ms", delayMs);
+                try {
+                    sleepMillis(delayMs);
+                } finally {
+                    sleepSpan.end();
+                }
             }
-            applyCooldown(delayMs);
             attempt += 1;
         }
     }
 
-    private void waitForCooldown() {
-        long now = System.currentTimeMillis();
-        long until = httpCooldownUntil.get();
-        if (until > now) {
-            sleepMillis(until - now);
+    private static boolean isSessionRejected(HttpResponse<String> response) {
+        int status = response.statusCode();
+        if (status == 401 || status == 403) {
+            return true;
         }
+        String body = response.body();
+        return status == 400 && body != null && body.contains("checkpoint_required");
     }
 
-    private void applyCooldown(long delayMs) {
-        if (delayMs <= 0) {
-            return;
-        }
-        long target = System.currentTimeMillis() + delayMs;
-        httpCooldownUntil.updateAndGet(current -> Math.max(current, target));
+    private void recordHttpRequest(String endpoint, String lane, String status, long startedAtNanos) {
+        meterRegistry.timer("instagram.http.requests", "endpoint", endpoint, "lane", lane, "status", status)
+                .record(System.nanoTime() - startedAtNanos, TimeUnit.NANOSECONDS);
     }
 
-    private static final class InstagramHttpRateLimiter {
-        private final Semaphore semaphore;
-        private final long minIntervalMs;
-        private final Object intervalLock = new Object();
-        private long lastRequestAt;
+    private void recordCacheLookup(String cache, boolean hit) {
+        meterRegistry.counter("instagram.cache.requests", "cache", cache, "result", hit ? "hit" : "miss").increment();
+    }
 
-        private InstagramHttpRateLimiter(int maxConcurrency, long minIntervalMs) {
-            this.semaphore = new Semaphore(Math.max(1, maxConcurrency), true);
-            this.minIntervalMs = Math.max(0, minIntervalMs);
+    private void registerGauges() {
+        for (InstagramSessionPool.Lane lane : InstagramSessionPool.Lane.values()) {
+            Gauge.builder("instagram.http.lease.waiting", sessionPool, pool -> pool.waiting(lane))
+                    .description("Requests waiting for an Instagram session lease")
+                    .tag("lane", lane.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
         }
+        for (Map.Entry<InstagramEndpointFamily, InstagramCircuitBreaker> entry : circuitBreakers.entrySet()) {
+            Gauge.builder("instagram.http.circuit.state", entry.getValue(), breaker -> breaker.state().ordinal())
+                    .description("Circuit breaker state (0=closed, 1=open, 2=half_open)")
+                    .tag("endpoint", entry.getKey().name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+    }
 
-        private void acquire() throws InterruptedException {
-            semaphore.acquire();
-            if (minIntervalMs <= 0) {
-                return;
-            }
-            try {
-                synchronized (intervalLock) {
-                    long now = System.currentTimeMillis();
-                    long waitMs = lastRequestAt + minIntervalMs - now;
-                    if (waitMs > 0) {
-                        Thread.sleep(waitMs);
-                    }
-                    lastRequestAt = System.currentTimeMillis();
-                }
-            } catch (InterruptedException exception) {
-                semaphore.release();
-                throw exception;
-            }
+    private static HttpRequest withSession(HttpRequest request, InstagramSessionPool.Lease lease) {
+        if (lease.sessionId().isBlank() && !InstagramRequestDeadline.isActive()) {
+            return request;
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+        if (!lease.sessionId().isBlank()) {
+            builder.header("Cookie", "sessionid=" + lease.sessionId());
         }
+        if (InstagramRequestDeadline.isActive()) {
+            builder.timeout(InstagramRequestDeadline.clampTimeout(request.timeout().orElse(Duration.ofSeconds(30))));
+        }
+        return builder.build();
+    }
+
+    private record FeedMergeResult(int added, int refreshed, int removed, int pages) {
+    }
+
+    record FeedPage(
+            List<InstagramPost> newPosts,
+            List<InstagramPost> recentKnownPosts,
+            long oldestTakenAt,
+            boolean reachedEnd) {
+    }
+
+    private static final class CircuitOpenException extends IllegalStateException {
+        private CircuitOpenException(InstagramEndpointFamily family, long retryInMs) {
+            super("Instagram " + family + " circuit open (retryInMs=" + retryInMs + ")");
+        }
+    }
 
-        private void release() {
-            semaphore.release();
+    private static final class DeadlineExceededException extends IllegalStateException {
+        private DeadlineExceededException(URI uri) {
+            super("Instagram request deadline exceeded: " + uri);
         }
     }
 
@@ -0,0 +1,314 @@
+package org.engine.pickerengine.service;
+
+import org.engine.pickerengine.dto.InstagramSessionHealth;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class InstagramSessionPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramSessionPool.class);
+    private static final long MAX_POLL_MS = 1000;
+    private static final long YIELD_POLL_MS = 50;
+    // 429s from at least this many endpoint families inside the window count against the session itself.
+    private static final int SESSION_THROTTLE_FAMILIES = 2;
+    private static final long SESSION_THROTTLE_WINDOW_MS = 10 * 60 * 1000;
+
+    enum Lane {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    private final List<Session> sessions;
+    private final boolean hasCredentials;
+    private final int quarantineThreshold;
+    private final long quarantineMs;
+    private final long maxQuarantineMs;
+    private final InstagramTokenBucket backgroundBucket;
+    private final int interactiveWeight;
+    private final AtomicInteger interactiveWaiting = new AtomicInteger(0);
+    private final AtomicInteger backgroundWaiting = new AtomicInteger(0);
+    private final AtomicInteger interactiveGrantsSinceBackground = new AtomicInteger(0);
+
+    InstagramSessionPool(
+            List<String> sessionIds,
+            int maxConcurrencyPerSession,
+            long minIntervalMs,
+            int quarantineThreshold,
+            long quarantineMs,
+            long maxQuarantineMs,
+            double interactiveReservedFraction,
+            int interactiveWeight) {
+        List<Session> created = new ArrayList<>();
+        for (String sessionId : sessionIds) {
+            if (sessionId == null || sessionId.isBlank()) {
+                continue;
+            }
+            created.add(new Session("session-" + (created.size() + 1), sessionId.trim(), maxConcurrencyPerSession, minIntervalMs));
+        }
+        this.hasCredentials = !created.isEmpty();
+        if (created.isEmpty()) {
+            created.add(new Session("anonymous", "", maxConcurrencyPerSession, minIntervalMs));
+        }
+        this.sessions = List.copyOf(created);
+        this.quarantineThreshold = Math.max(0, quarantineThreshold);
+        this.quarantineMs = Math.max(0, quarantineMs);
+        this.maxQuarantineMs = Math.max(this.quarantineMs, maxQuarantineMs);
+        double backgroundShare = 1 - Math.min(0.9, Math.max(0, interactiveReservedFraction));
+        this.backgroundBucket = minIntervalMs > 0
+                ? new InstagramTokenBucket(
+                        Math.max(1, Math.floor(this.sessions.size() * backgroundShare)),
+                        this.sessions.size() * backgroundShare * 1000.0 / minIntervalMs)
+                : null;
+        this.interactiveWeight = Math.max(1, interactiveWeight);
+    }
+
+    boolean hasCredentials() {
+        return hasCredentials;
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    int waiting(Lane lane) {
+        return lane == Lane.INTERACTIVE ? interactiveWaiting.get() : backgroundWaiting.get();
+    }
+
+    Lease acquire(Lane lane, InstagramEndpointFamily family, long maxWaitMs) throws InterruptedException {
+        long giveUpAt = maxWaitMs == Long.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + maxWaitMs;
+        boolean interactive = lane == Lane.INTERACTIVE;
+        AtomicInteger waiting = interactive ? interactiveWaiting : backgroundWaiting;
+        waiting.incrementAndGet();
+        try {
+            while (true) {
+                long now = System.currentTimeMillis();
+                Lease lease = tryAcquire(lane, family, now);
+                if (lease != null) {
+                    return lease;
+                }
+                long waitMs = MAX_POLL_MS;
+                for (Session session : sessions) {
+                    waitMs = Math.min(waitMs, session.millisUntilReady(family, now));
+                }
+                if (!interactive) {
+                    waitMs = Math.max(waitMs, Math.min(MAX_POLL_MS, backgroundWaitMs(now)));
+                }
+                waitMs = Math.max(10, waitMs);
+                if (now + waitMs > giveUpAt) {
+                    return null;
+                }
+                Thread.sleep(waitMs);
+            }
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    Lease tryAcquire(Lane lane, InstagramEndpointFamily family, long nowMs) {
+        boolean interactive = lane == Lane.INTERACTIVE;
+        if (!interactive && backgroundMustYield(nowMs)) {
+            return null;
+        }
+        List<Session> ready = new ArrayList<>();
+        for (Session session : sessions) {
+            if (session.blockedUntil(family) <= nowMs) {
+                ready.add(session);
+            }
+        }
+        ready.sort(Comparator
+                .comparingInt((Session session) -> session.consecutive429.get())
+                .thenComparing(Comparator.comparingInt((Session session) -> session.permits.availablePermits()).reversed())
+                .thenComparing(Comparator.comparingDouble((Session session) -> session.availableTokens(nowMs)).reversed()));
+        for (Session session : ready) {
+            if (!session.permits.tryAcquire()) {
+                continue;
+            }
+            // Background takes its shared token first; whichever bucket refuses, no token is lost.
+            boolean background = !interactive && backgroundBucket != null;
+            if (background && !backgroundBucket.tryAcquire(nowMs)) {
+                session.permits.release();
+                return null;
+            }
+            if (session.bucket != null && !session.bucket.tryAcquire(nowMs)) {
+                if (background) {
+                    backgroundBucket.refund();
+                }
+                session.permits.release();
+                continue;
+            }
+            if (interactive) {
+                interactiveGrantsSinceBackground.incrementAndGet();
+            } else {
+                interactiveGrantsSinceBackground.set(0);
+            }
+            return new Lease(session, family);
+        }
+        return null;
+    }
+
+    private boolean backgroundMustYield(long nowMs) {
+        if (interactiveWaiting.get() > 0 && interactiveGrantsSinceBackground.get() < interactiveWeight) {
+            return true;
+        }
+        return backgroundBucket != null && backgroundBucket.availableTokens(nowMs) < 1;
+    }
+
+    private long backgroundWaitMs(long nowMs) {
+        if (interactiveWaiting.get() > 0) {
+            return YIELD_POLL_MS;
+        }
+        return backgroundBucket == null ? 0 : backgroundBucket.millisUntilAvailable(nowMs);
+    }
+
+    List<InstagramSessionHealth> health() {
+        long now = System.currentTimeMillis();
+        List<InstagramSessionHealth> results = new ArrayList<>();
+        for (Session session : sessions) {
+            long quarantinedUntil = session.quarantinedUntil.get();
+            long cooldownUntil = session.familyCooldownUntil();
+            String state = quarantinedUntil > now ? "quarantined" : cooldownUntil > now ? "cooling" : "healthy";
+            long blockedUntil = session.blockedUntil();
+            results.add(new InstagramSessionHealth(
+                    session.id,
+                    state,
+                    session.consecutive429.get(),
+                    session.quarantines.get(),
+                    session.maxConcurrency - session.permits.availablePermits(),
+                    blockedUntil > now ? Instant.ofEpochMilli(blockedUntil).toString() : null));
+        }
+        return results;
+    }
+
+    final class Lease {
+        private final Session session;
+        private final InstagramEndpointFamily family;
+        private boolean released;
+
+        private Lease(Session session, InstagramEndpointFamily family) {
+            this.session = session;
+            this.family = family;
+        }
+
+        String sessionId() {
+            return session.sessionId;
+        }
+
+        String label() {
+            return session.id;
+        }
+
+        void onSuccess() {
+            session.consecutive429.set(0);
+            session.quarantines.set(0);
+        }
+
+        // A 429 only cools this endpoint family on the session; other families keep flowing.
+        void onThrottled(long nowMs, long cooldownMs) {
+            if (cooldownMs > 0) {
+                session.cooldownUntil.get(family).accumulateAndGet(nowMs + cooldownMs, Math::max);
+            }
+            session.lastThrottledAt.get(family).set(nowMs);
+            int streak = session.consecutive429.incrementAndGet();
+            if (quarantineThreshold > 0
+                    && streak >= quarantineThreshold
+                    && session.throttledFamilies(nowMs) >= SESSION_THROTTLE_FAMILIES) {
+                session.consecutive429.set(0);
+                quarantine(nowMs, streak + " consecutive 429s across endpoint families");
+            }
+        }
+
+        // 401/403/checkpoint mean the session itself is unusable, whatever endpoint saw it.
+        void onAuthFailure(long nowMs, int status) {
+            quarantine(nowMs, "HTTP " + status);
+        }
+
+        private void quarantine(long nowMs, String reason) {
+            int quarantines = session.quarantines.getAndIncrement();
+            long duration = Math.min(maxQuarantineMs, (long) (quarantineMs * Math.pow(2, Math.min(quarantines, 20))));
+            session.quarantinedUntil.accumulateAndGet(nowMs + duration, Math::max);
+            LOGGER.warn("Instagram {} quarantined for {}ms after {}", session.id, duration, reason);
+        }
+
+        void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            session.permits.release();
+        }
+    }
+
+    private static final class Session {
+        private final String id;
+        private final String sessionId;
+        private final int maxConcurrency;
+        private final Semaphore permits;
+        private final InstagramTokenBucket bucket;
+        private final AtomicInteger consecutive429 = new AtomicInteger(0);
+        private final AtomicInteger quarantines = new AtomicInteger(0);
+        private final Map<InstagramEndpointFamily, AtomicLong> cooldownUntil = new EnumMap<>(InstagramEndpointFamily.class);
+        private final Map<InstagramEndpointFamily, AtomicLong> lastThrottledAt =
+                new EnumMap<>(InstagramEndpointFamily.class);
+        private final AtomicLong quarantinedUntil = new AtomicLong(0);
+
+        private Session(String id, String sessionId, int maxConcurrency, long minIntervalMs) {
+            this.id = id;
+            this.sessionId = sessionId;
+            this.maxConcurrency = Math.max(1, maxConcurrency);
+            this.permits = new Semaphore(this.maxConcurrency, true);
+            this.bucket = minIntervalMs > 0 ? new InstagramTokenBucket(1, 1000.0 / minIntervalMs) : null;
+            for (InstagramEndpointFamily family : InstagramEndpointFamily.values()) {
+                cooldownUntil.put(family, new AtomicLong(0));
+                lastThrottledAt.put(family, new AtomicLong(0));
+            }
+        }
+
+        private long blockedUntil(InstagramEndpointFamily family) {
+            return Math.max(cooldownUntil.get(family).get(), quarantinedUntil.get());
+        }
+
+        private long blockedUntil() {
+            return Math.max(familyCooldownUntil(), quarantinedUntil.get());
+        }
+
+        private long familyCooldownUntil() {
+            long latest = 0;
+            for (AtomicLong until : cooldownUntil.values()) {
+                latest = Math.max(latest, until.get());
+            }
+            return latest;
+        }
+
+        private int throttledFamilies(long nowMs) {
+            int families = 0;
+            for (AtomicLong at : lastThrottledAt.values()) {
+                if (at.get() > 0 && nowMs - at.get() <= SESSION_THROTTLE_WINDOW_MS) {
+                    families += 1;
+                }
+            }
+            return families;
+        }
+
+        private double availableTokens(long nowMs) {
+            return bucket == null ? 1 : bucket.availableTokens(nowMs);
+        }
+
+        private long millisUntilReady(InstagramEndpointFamily family, long nowMs) {
+            long blocked = blockedUntil(family) - nowMs;
+            if (blocked > 0) {
+                return blocked;
+            }
+            return bucket == null ? 0 : bucket.millisUntilAvailable(nowMs);
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package org.engine.pickerengine.service;
+
+import org.engine.pickerengine.dto.InstagramProfile;
+import org.engine.pickerengine.dto.InstagramSnapshotPoint;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class InstagramSnapshotService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramSnapshotService.class);
+    private static final String CREATE_SNAPSHOT_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS instagram_profile_snapshots (
+                username text NOT NULL,
+                captured_at timestamptz NOT NULL,
+                followers integer NOT NULL,
+                following integer NOT NULL,
+                media_count integer NOT NULL,
+                recent_avg_views real,
+                recent_avg_likes real,
+                recent_avg_comments real
+            ) PARTITION BY RANGE (captured_at)
+            """;
+    private static final String CREATE_SNAPSHOT_INDEX_SQL = """
+            CREATE INDEX IF NOT EXISTS instagram_profile_snapshots_username_idx
+            ON instagram_profile_snapshots (username, captured_at)
+            """;
+    private static final String CREATE_PARTITION_SQL = """
+            CREATE TABLE IF NOT EXISTS %s
+            PARTITION OF instagram_profile_snapshots
+            FOR VALUES FROM ('%s') TO ('%s')
+            """;
+    private static final String CREATE_ROLLUP_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS instagram_profile_snapshot_rollups (
+                username text NOT NULL,
+                granularity text NOT NULL,
+                bucket_start timestamptz NOT NULL,
+                samples integer NOT NULL,
+                followers integer NOT NULL,
+                followers_min integer NOT NULL,
+                followers_max integer NOT NULL,
+                following integer NOT NULL,
+                media_count integer NOT NULL,
+                recent_avg_views real,
+                recent_avg_likes real,
+                recent_avg_comments real,
+                PRIMARY KEY (username, granularity, bucket_start)
+            )
+            """;
+    private static final String INSERT_SNAPSHOT_SQL = """
+            INSERT INTO instagram_profile_snapshots (
+                username, captured_at, followers, following, media_count,
+                recent_avg_views, recent_avg_likes, recent_avg_comments)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    // Re-aggregates every bucket from the newest rolled-up one onwards (or the lookback, whichever is older),
+    // so reruns are idempotent and a failed cycle is caught up by the next one.
+    private static final String ROLLUP_SQL = """
+            INSERT INTO instagram_profile_snapshot_rollups (
+                username, granularity, bucket_start, samples,
+                followers, followers_min, followers_max, following, media_count,
+                recent_avg_views, recent_avg_likes, recent_avg_comments)
+            SELECT b.username,
+                   ?,
+                   b.bucket_start,
+                   count(*),
+                   (array_agg(b.followers ORDER BY b.captured_at DESC))[1],
+                   min(b.followers),
+                   max(b.followers),
+                   (array_agg(b.following ORDER BY b.captured_at DESC))[1],
+                   (array_agg(b.media_count ORDER BY b.captured_at DESC))[1],
+                   avg(b.recent_avg_views),
+                   avg(b.recent_avg_likes),
+                   avg(b.recent_avg_comments)
+            FROM (
+                SELECT s.*, date_trunc(?, s.captured_at, 'UTC') AS bucket_start
+                FROM instagram_profile_snapshots s
+                WHERE s.captured_at >= LEAST(
+                        COALESCE(
+                            (SELECT max(r.bucket_start)
+                             FROM instagram_profile_snapshot_rollups r
+                             WHERE r.granularity = ?),
+                            '-infinity'::timestamptz),
+                        date_trunc(?, now() - make_interval(days => ?), 'UTC'))
+            ) b
+            GROUP BY b.username, b.bucket_start
+            ON CONFLICT (username, granularity, bucket_start)
+            DO UPDATE SET samples = EXCLUDED.samples,
+                          followers = EXCLUDED.followers,
+                          followers_min = EXCLUDED.followers_min,
+                          followers_max = EXCLUDED.followers_max,
+                          following = EXCLUDED.following,
+                          media_count = EXCLUDED.media_count,
+                          recent_avg_views = EXCLUDED.recent_avg_views,
+                          recent_avg_likes = EXCLUDED.recent_avg_likes,
+                          recent_avg_comments = EXCLUDED.recent_avg_comments
+            """;
+    private static final String RAW_SERIES_SQL = """
+            SELECT captured_at, 1, followers, followers, followers, following, media_count,
+                   recent_avg_views, recent_avg_likes, recent_avg_comments
+            FROM instagram_profile_snapshots
+            WHERE username = ?
+              AND captured_at >= ?
+              AND captured_at < ?
+            ORDER BY captured_at
+            LIMIT ?
+            """;
+    private static final String ROLLUP_SERIES_SQL = """
+            SELECT bucket_start, samples, followers, followers_min, followers_max, following, media_count,
+                   recent_avg_views, recent_avg_likes, recent_avg_comments
+            FROM instagram_profile_snapshot_rollups
+            WHERE username = ?
+              AND granularity = ?
+              AND bucket_start >= ?
+              AND bucket_start < ?
+            ORDER BY bucket_start
+            LIMIT ?
+            """;
+    private static final int DAILY_LOOKBACK_DAYS = 2;
+    private static final int WEEKLY_LOOKBACK_DAYS = 8;
+    private static final int MAX_SERIES_POINTS = 5000;
+    private static final long DEFAULT_SERIES_DAYS = 90;
+    private static final int MAX_PENDING = 50_000;
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final Queue<Snapshot> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong droppedSnapshots = new AtomicLong();
+    private final Set<YearMonth> partitions = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public InstagramSnapshotService(
+            DataSource dataSource,
+            @Value("${instagram.snapshots.enabled:true}") boolean enabled) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+    }
+
+    void record(InstagramProfile profile, InstagramInsightsCalculator.Metrics metrics, Instant capturedAt) {
+        if (!enabled || profile == null || profile.username() == null || profile.username().isBlank()) {
+            return;
+        }
+        Snapshot snapshot = new Snapshot(
+                profile.username().trim().toLowerCase(Locale.ROOT),
+                capturedAt,
+                profile.followers(),
+                profile.following(),
+                profile.mediaCount(),
+                metrics == null ? null : metrics.recentAvgViews(),
+                metrics == null ? null : metrics.recentAvgLikes(),
+                metrics == null ? null : metrics.recentAvgComments());
+        // Called from inside the profile save; a rolled-back save must not leave a snapshot behind.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(snapshot);
+                }
+            });
+            return;
+        }
+        enqueue(snapshot);
+    }
+
+    // Bounded so a database outage cannot grow the queue without limit; overflow rows are counted and dropped.
+    private void enqueue(Snapshot snapshot) {
+        if (pendingCount.incrementAndGet() > MAX_PENDING) {
+            pendingCount.decrementAndGet();
+            droppedSnapshots.incrementAndGet();
+            return;
+        }
+        pending.add(snapshot);
+    }
+
+    public int flush() {
+        if (pending.isEmpty() || dataSource == null) {
+            return 0;
+        }
+        flushLock.lock();
+        try {
+            if (!ensureInitialized()) {
+                return 0;
+            }
+            List<Snapshot> drained = new ArrayList<>();
+            Snapshot snapshot;
+            while ((snapshot = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                drained.add(snapshot);
+            }
+            long dropped = droppedSnapshots.getAndSet(0);
+            if (dropped > 0) {
+                LOGGER.warn("Dropped {} instagram snapshots while the pending queue was full", dropped);
+            }
+            if (drained.isEmpty()) {
+                return 0;
+            }
+            try (Connection connection = dataSource.getConnection()) {
+                ensurePartitions(connection, drained);
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_SNAPSHOT_SQL)) {
+                    for (Snapshot row : drained) {
+                        statement.setString(1, row.username());
+                        statement.setTimestamp(2, Timestamp.from(row.capturedAt()));
+                        statement.setInt(3, row.followers());
+                        statement.setInt(4, row.following());
+                        statement.setInt(5, row.mediaCount());
+                        bindDouble(statement, 6, row.recentAvgViews());
+                        bindDouble(statement, 7, row.recentAvgLikes());
+                        bindDouble(statement, 8, row.recentAvgComments());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+                return drained.size();
+            } catch (SQLException exception) {
+                drained.forEach(this::enqueue);
+                LOGGER.warn("Failed to flush instagram snapshots ({} rows kept for retry)", drained.size(), exception);
+                return 0;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int rollup() {
+        if (!enabled || dataSource == null || !ensureInitialized()) {
+            return 0;
+        }
+        int rows = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(ROLLUP_SQL)) {
+            rows += rollup(statement, "day", DAILY_LOOKBACK_DAYS);
+            rows += rollup(statement, "week", WEEKLY_LOOKBACK_DAYS);
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to roll up instagram snapshots", exception);
+        }
+        return rows;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public List<InstagramSnapshotPoint> findSeries(String username, String granularity, String from, String to) {
+        Instant end = parseBoundary(to, Instant.now());
+        Instant start = parseBoundary(from, end.minus(DEFAULT_SERIES_DAYS, ChronoUnit.DAYS));
+        return findSeries(username, granularity, start, end);
+    }
+
+    public List<InstagramSnapshotPoint> findSeries(String username, String granularity, Instant from, Instant to) {
+        List<InstagramSnapshotPoint> points = new ArrayList<>();
+        if (username == null || username.isBlank() || dataSource == null || !ensureInitialized()) {
+            return points;
+        }
+        String resolved = granularity == null ? "day" : granularity.trim().toLowerCase(Locale.ROOT);
+        boolean raw = resolved.equals("raw");
+        if (!raw && !resolved.equals("week")) {
+            resolved = "day";
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(raw ? RAW_SERIES_SQL : ROLLUP_SERIES_SQL)) {
+            int index = 1;
+            statement.setString(index++, username.trim().toLowerCase(Locale.ROOT));
+            if (!raw) {
+                statement.setString(index++, resolved);
+            }
+            statement.setTimestamp(index++, Timestamp.from(from));
+            statement.setTimestamp(index++, Timestamp.from(to));
+            statement.setInt(index, MAX_SERIES_POINTS);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    points.add(new InstagramSnapshotPoint(
+                            resultSet.getTimestamp(1).toInstant().toString(),
+                            resultSet.getInt(2),
+                            resultSet.getInt(3),
+                            resultSet.getInt(4),
+                            resultSet.getInt(5),
+                            resultSet.getInt(6),
+                            resultSet.getInt(7),
+                            nullableDouble(resultSet, 8),
+                            nullableDouble(resultSet, 9),
+                            nullableDouble(resultSet, 10)));
+                }
+            }
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to load instagram snapshot series for {}", username, exception);
+        }
+        return points;
+    }
+
+    private static Instant parseBoundary(String value, Instant fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        String trimmed = value.trim();
+        try {
+            if (trimmed.length() == 10) {
+                return LocalDate.parse(trimmed).atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+            return Instant.parse(trimmed);
+        } catch (DateTimeParseException exception) {
+            return fallback;
+        }
+    }
+
+    private int rollup(PreparedStatement statement, String granularity, int lookbackDays) throws SQLException {
+        statement.setString(1, granularity);
+        statement.setString(2, granularity);
+        statement.setString(3, granularity);
+        statement.setString(4, granularity);
+        statement.setInt(5, lookbackDays);
+        return statement.executeUpdate();
+    }
+
+    private void ensurePartitions(Connection connection, List<Snapshot> rows) throws SQLException {
+        Set<YearMonth> months = new TreeSet<>();
+        for (Snapshot row : rows) {
+            YearMonth month = YearMonth.from(row.capturedAt().atZone(ZoneOffset.UTC));
+            if (!partitions.contains(month)) {
+                months.add(month);
+            }
+        }
+        if (months.isEmpty()) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (YearMonth month : months) {
+                LocalDate start = month.atDay(1);
+                statement.execute(String.format(
+                        CREATE_PARTITION_SQL,
+                        String.format("instagram_profile_snapshots_y%04dm%02d", month.getYear(), month.getMonthValue()),
+                        start + " 00:00:00+00",
+                        start.plusMonths(1) + " 00:00:00+00"));
+                partitions.add(month);
+            }
+        }
+    }
+
+    private boolean ensureInitialized() {
+        if (initialized.get()) {
+            return true;
+        }
+        flushLock.lock();
+        try {
+            if (initialized.get()) {
+                return true;
+            }
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_SNAPSHOT_TABLE_SQL);
+                statement.execute(CREATE_SNAPSHOT_INDEX_SQL);
+                statement.execute(CREATE_ROLLUP_TABLE_SQL);
+                initialized.set(true);
+            } catch (SQLException exception) {
+                LOGGER.warn("Failed to create instagram snapshot tables", exception);
+            }
+            return initialized.get();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private static void bindDouble(PreparedStatement statement, int index, Double value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.REAL);
+        } else {
+            statement.setFloat(index, value.floatValue());
+        }
+    }
+
+    private static Double nullableDouble(ResultSet resultSet, int index) throws SQLException {
+        double value = resultSet.getDouble(index);
+        return resultSet.wasNull() ? null : Math.round(value * 100.0) / 100.0;
+    }
+
+    private record Snapshot(
+            String username,
+            Instant capturedAt,
+            int followers,
+            int following,
+            int mediaCount,
+            Double recentAvgViews,
+            Double recentAvgLikes,
+            Double recentAvgComments) {
+    }
+}
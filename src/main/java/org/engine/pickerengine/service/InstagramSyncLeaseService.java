@@ -0,0 +1,269 @@
+package org.engine.pickerengine.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class InstagramSyncLeaseService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramSyncLeaseService.class);
+    private static final String CREATE_STATE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS sync_state (
+                state_key text PRIMARY KEY,
+                state_value text NOT NULL,
+                updated_at timestamptz NOT NULL DEFAULT now()
+            )
+            """;
+    private static final String HEARTBEAT_INSTANCE_SQL = """
+            INSERT INTO sync_state (state_key, state_value, updated_at)
+            VALUES (?, ?, now())
+            ON CONFLICT (state_key)
+            DO UPDATE SET state_value = EXCLUDED.state_value, updated_at = now()
+            """;
+    private static final String COUNT_LIVE_INSTANCES_SQL = """
+            SELECT count(*)
+            FROM sync_state
+            WHERE state_key LIKE 'instagram_sync_instance:%'
+              AND updated_at > now() - make_interval(secs => ?)
+            """;
+    private static final String RENEW_PARTITIONS_SQL = """
+            UPDATE sync_state
+            SET updated_at = now()
+            WHERE state_key LIKE 'instagram_sync_partition:%'
+              AND state_value = ?
+            RETURNING state_key
+            """;
+    private static final String ACQUIRE_PARTITION_SQL = """
+            INSERT INTO sync_state (state_key, state_value, updated_at)
+            VALUES (?, ?, now())
+            ON CONFLICT (state_key)
+            DO UPDATE SET state_value = EXCLUDED.state_value, updated_at = now()
+            WHERE sync_state.state_value = EXCLUDED.state_value
+               OR sync_state.updated_at < now() - make_interval(secs => ?)
+            RETURNING state_key
+            """;
+    private static final String RELEASE_PARTITION_SQL = """
+            DELETE FROM sync_state
+            WHERE state_key = ?
+              AND state_value = ?
+            """;
+    private static final String RELEASE_ALL_SQL = """
+            DELETE FROM sync_state
+            WHERE (state_key LIKE 'instagram_sync_partition:%' AND state_value = ?)
+               OR state_key = ?
+            """;
+    private static final String PRUNE_INSTANCES_SQL = """
+            DELETE FROM sync_state
+            WHERE state_key LIKE 'instagram_sync_instance:%'
+              AND updated_at < now() - interval '1 day'
+            """;
+    private static final String PARTITION_KEY_PREFIX = "instagram_sync_partition:";
+    private static final String INSTANCE_KEY_PREFIX = "instagram_sync_instance:";
+
+    private final DataSource dataSource;
+    private final String instanceId;
+    private final int partitionCount;
+    private final long leaseSeconds;
+    private final ReentrantLock leaseLock = new ReentrantLock();
+    private volatile List<Integer> ownedPartitions = List.of();
+    private volatile boolean initialized;
+    private volatile long lastHeartbeatAt;
+
+    public InstagramSyncLeaseService(
+            DataSource dataSource,
+            @Value("${instagram.influencer-sync.instance-id:}") String instanceId,
+            @Value("${instagram.influencer-sync.partitions:16}") int partitionCount,
+            @Value("${instagram.influencer-sync.lease-seconds:120}") long leaseSeconds) {
+        this.dataSource = dataSource;
+        this.instanceId = instanceId == null || instanceId.isBlank() ? defaultInstanceId() : instanceId.trim();
+        this.partitionCount = Math.max(1, partitionCount);
+        this.leaseSeconds = Math.max(10, leaseSeconds);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public List<Integer> getOwnedPartitions() {
+        return ownedPartitions;
+    }
+
+    // Renews here as well as from the scheduler, which skips heartbeats while scheduled sync is
+    // disabled; a manual run-all would otherwise keep claiming with partitions it no longer owns.
+    public List<Integer> ensureLeases() {
+        if (!initialized || System.currentTimeMillis() - lastHeartbeatAt >= leaseSeconds * 1000 / 2) {
+            heartbeat();
+        }
+        return ownedPartitions;
+    }
+
+    public void heartbeat() {
+        leaseLock.lock();
+        try {
+            try (Connection connection = dataSource.getConnection()) {
+                if (!initialized) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute(CREATE_STATE_TABLE_SQL);
+                    }
+                    initialized = true;
+                }
+                upsertInstance(connection);
+                int liveInstances = Math.max(1, countLiveInstances(connection));
+                int fairShare = (partitionCount + liveInstances - 1) / liveInstances;
+                TreeSet<Integer> owned = renewPartitions(connection);
+                while (owned.size() > fairShare) {
+                    Integer partition = owned.pollLast();
+                    releasePartition(connection, partition);
+                }
+                if (owned.size() < fairShare) {
+                    int start = ThreadLocalRandom.current().nextInt(partitionCount);
+                    for (int i = 0; i < partitionCount && owned.size() < fairShare; i++) {
+                        int partition = (start + i) % partitionCount;
+                        if (!owned.contains(partition) && acquirePartition(connection, partition)) {
+                            owned.add(partition);
+                        }
+                    }
+                }
+                List<Integer> next = List.copyOf(owned);
+                if (!next.equals(ownedPartitions)) {
+                    LOGGER.info(
+                            "Instagram sync leases changed (instance={}, liveInstances={}, partitions={})",
+                            instanceId,
+                            liveInstances,
+                            next);
+                }
+                ownedPartitions = next;
+                lastHeartbeatAt = System.currentTimeMillis();
+            } catch (SQLException exception) {
+                ownedPartitions = List.of();
+                lastHeartbeatAt = 0;
+                LOGGER.warn("Failed to heartbeat instagram sync leases", exception);
+            }
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        if (!initialized) {
+            return;
+        }
+        leaseLock.lock();
+        try {
+            ownedPartitions = List.of();
+            lastHeartbeatAt = 0;
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(RELEASE_ALL_SQL)) {
+                statement.setString(1, instanceId);
+                statement.setString(2, INSTANCE_KEY_PREFIX + instanceId);
+                statement.executeUpdate();
+            } catch (SQLException exception) {
+                LOGGER.warn("Failed to release instagram sync leases", exception);
+            }
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    private void upsertInstance(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(HEARTBEAT_INSTANCE_SQL)) {
+            statement.setString(1, INSTANCE_KEY_PREFIX + instanceId);
+            statement.setString(2, instanceId);
+            statement.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(PRUNE_INSTANCES_SQL);
+        }
+    }
+
+    private int countLiveInstances(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(COUNT_LIVE_INSTANCES_SQL)) {
+            statement.setLong(1, leaseSeconds);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : 1;
+            }
+        }
+    }
+
+    private TreeSet<Integer> renewPartitions(Connection connection) throws SQLException {
+        TreeSet<Integer> owned = new TreeSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(RENEW_PARTITIONS_SQL)) {
+            statement.setString(1, instanceId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Integer partition = parsePartition(resultSet.getString(1));
+                    if (partition == null) {
+                        continue;
+                    }
+                    if (partition >= partitionCount) {
+                        releasePartition(connection, partition);
+                        continue;
+                    }
+                    owned.add(partition);
+                }
+            }
+        }
+        return owned;
+    }
+
+    private boolean acquirePartition(Connection connection, int partition) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(ACQUIRE_PARTITION_SQL)) {
+            statement.setString(1, PARTITION_KEY_PREFIX + partition);
+            statement.setString(2, instanceId);
+            statement.setLong(3, leaseSeconds);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private void releasePartition(Connection connection, int partition) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(RELEASE_PARTITION_SQL)) {
+            statement.setString(1, PARTITION_KEY_PREFIX + partition);
+            statement.setString(2, instanceId);
+            statement.executeUpdate();
+        }
+    }
+
+    private Integer parsePartition(String stateKey) {
+        if (stateKey == null || !stateKey.startsWith(PARTITION_KEY_PREFIX)) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(stateKey.substring(PARTITION_KEY_PREFIX.length()));
+        } catch (NumberFormatException ignored) {
+            return null;
+        }
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception ignored) {
+            host = "instance";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,334 @@
+package org.engine.pickerengine.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class InstagramSyncQueueService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstagramSyncQueueService.class);
+    private static final String CREATE_QUEUE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS instagram_sync_queue (
+                username text PRIMARY KEY,
+                lookup_username text NOT NULL,
+                priority_tier text,
+                demand_count double precision NOT NULL DEFAULT 0,
+                last_demand_at timestamptz,
+                claimed_until timestamptz,
+                not_before timestamptz,
+                failures integer NOT NULL DEFAULT 0,
+                last_synced_at timestamptz
+            )
+            """;
+    private static final String REFILL_SQL = """
+            INSERT INTO instagram_sync_queue (username, lookup_username, priority_tier)
+            SELECT DISTINCT ON (lower(btrim(username))) lower(btrim(username)), btrim(username), priority_tier
+            FROM influencer
+            WHERE platform = 'instagram'
+              AND username IS NOT NULL
+              AND btrim(username) <> ''
+            ORDER BY lower(btrim(username)), priority_tier
+            ON CONFLICT (username)
+            DO UPDATE SET lookup_username = EXCLUDED.lookup_username, priority_tier = EXCLUDED.priority_tier
+            WHERE instagram_sync_queue.lookup_username IS DISTINCT FROM EXCLUDED.lookup_username
+               OR instagram_sync_queue.priority_tier IS DISTINCT FROM EXCLUDED.priority_tier
+            """;
+    private static final String PRUNE_SQL = """
+            DELETE FROM instagram_sync_queue q
+            WHERE NOT EXISTS (
+                SELECT 1
+                FROM influencer i
+                WHERE i.platform = 'instagram'
+                  AND lower(btrim(i.username)) = q.username
+            )
+            """;
+    private static final String RECORD_DEMAND_SQL = """
+            UPDATE instagram_sync_queue
+            SET demand_count = demand_count
+                    * exp(-EXTRACT(EPOCH FROM (now() - COALESCE(last_demand_at, now()))) / ?)
+                    + ?,
+                last_demand_at = now()
+            WHERE username = ?
+            """;
+    private static final String CLAIM_SQL = """
+            WITH candidates AS (
+                SELECT q.username,
+                       (CASE q.priority_tier WHEN 'A' THEN 4 WHEN 'B' THEN 2 WHEN 'C' THEN 1 ELSE 0.5 END)
+                       * (LEAST(
+                              EXTRACT(EPOCH FROM (LOCALTIMESTAMP - p.updated_at)) / 3600,
+                              ?)
+                          + ? * q.demand_count
+                              * exp(-EXTRACT(EPOCH FROM (now() - COALESCE(q.last_demand_at, now()))) / ?))
+                       AS score
+                FROM instagram_sync_queue q
+                LEFT JOIN instagram_profiles p ON p.username = q.username
+                LEFT JOIN instagram_negative_cache n ON n.username = q.username
+                WHERE (q.claimed_until IS NULL OR q.claimed_until < now())
+                  AND (q.not_before IS NULL OR q.not_before <= now())
+                  AND COALESCE(p.next_refresh_at, p.updated_at + ? * interval '1 hour', '-infinity')
+                      <= LOCALTIMESTAMP
+                  AND (n.recheck_at IS NULL OR n.recheck_at <= now())
+                  AND mod(hashtext(q.username)::bigint + 2147483648, ?) = ANY (?)
+                ORDER BY score DESC
+                LIMIT ?
+                FOR UPDATE OF q SKIP LOCKED
+            )
+            UPDATE instagram_sync_queue q
+            SET claimed_until = now() + make_interval(secs => ?)
+            FROM candidates c
+            WHERE q.username = c.username
+            RETURNING q.username, q.lookup_username, c.score
+            """;
+    private static final String MARK_SYNCED_SQL = """
+            UPDATE instagram_sync_queue
+            SET claimed_until = NULL,
+                not_before = NULL,
+                failures = 0,
+                demand_count = 0,
+                last_synced_at = now()
+            WHERE username = ?
+            """;
+    private static final String MARK_FAILED_SQL = """
+            UPDATE instagram_sync_queue
+            SET claimed_until = NULL,
+                failures = failures + 1,
+                not_before = now() + make_interval(secs => LEAST(? * power(2, failures), ?))
+            WHERE username = ?
+            """;
+    private static final String RELEASE_SQL = """
+            UPDATE instagram_sync_queue
+            SET claimed_until = NULL
+            WHERE username = ?
+            """;
+    private static final String COUNT_DUE_SQL = """
+            SELECT count(*)
+            FROM instagram_sync_queue q
+            LEFT JOIN instagram_profiles p ON p.username = q.username
+            LEFT JOIN instagram_negative_cache n ON n.username = q.username
+            WHERE (q.claimed_until IS NULL OR q.claimed_until < now())
+              AND (q.not_before IS NULL OR q.not_before <= now())
+              AND COALESCE(p.next_refresh_at, p.updated_at + ? * interval '1 hour', '-infinity')
+                  <= LOCALTIMESTAMP
+              AND (n.recheck_at IS NULL OR n.recheck_at <= now())
+            """;
+    private static final double MAX_STALENESS_HOURS = 24 * 180;
+    private static final double DEMAND_DECAY_SECONDS = 72 * 3600;
+    private static final long FAILURE_BACKOFF_SECONDS = 3600;
+    private static final long MAX_FAILURE_BACKOFF_SECONDS = 7 * 24 * 3600;
+    private static final int MAX_PENDING_DEMAND = 10_000;
+
+    private final DataSource dataSource;
+    private final double demandWeightHours;
+    private final long claimLeaseSeconds;
+    private final long refillIntervalMs;
+    private final long unscheduledMaxAgeHours;
+    private final Map<String, Integer> pendingDemand = new ConcurrentHashMap<>();
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
+    private final AtomicLong lastRefillAt = new AtomicLong(0);
+    private final ReentrantLock initLock = new ReentrantLock();
+
+    public InstagramSyncQueueService(
+            DataSource dataSource,
+            @Value("${instagram.influencer-sync.demand-weight-hours:24}") double demandWeightHours,
+            @Value("${instagram.influencer-sync.claim-lease-seconds:900}") long claimLeaseSeconds,
+            @Value("${instagram.influencer-sync.queue-refill-ms:600000}") long refillIntervalMs,
+            @Value("${instagram.refresh.unscheduled-max-age-hours:4320}") long unscheduledMaxAgeHours) {
+        this.dataSource = dataSource;
+        this.demandWeightHours = Math.max(0, demandWeightHours);
+        this.claimLeaseSeconds = Math.max(60, claimLeaseSeconds);
+        this.refillIntervalMs = Math.max(0, refillIntervalMs);
+        this.unscheduledMaxAgeHours = Math.max(0, unscheduledMaxAgeHours);
+    }
+
+    public void recordDemand(String username) {
+        if (username == null || username.isBlank()) {
+            return;
+        }
+        String normalized = normalizeUsername(username);
+        // Bounded so demand cannot pile up while nothing is claiming; overflow usernames are dropped.
+        if (pendingDemand.size() >= MAX_PENDING_DEMAND && !pendingDemand.containsKey(normalized)) {
+            return;
+        }
+        pendingDemand.merge(normalized, 1, Integer::sum);
+    }
+
+    public void flushPendingDemand() {
+        if (pendingDemand.isEmpty()) {
+            return;
+        }
+        ensureInitialized();
+        flushDemand();
+    }
+
+    void refillSoon() {
+        lastRefillAt.set(0);
+    }
+
+    List<SyncCandidate> claimBatch(int limit, List<Integer> partitions, int partitionCount) {
+        ensureInitialized();
+        refillIfDue();
+        flushDemand();
+        List<SyncCandidate> results = new ArrayList<>();
+        if (partitions == null || partitions.isEmpty()) {
+            return results;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(CLAIM_SQL)) {
+            statement.setDouble(1, MAX_STALENESS_HOURS);
+            statement.setDouble(2, demandWeightHours);
+            statement.setDouble(3, DEMAND_DECAY_SECONDS);
+            statement.setLong(4, unscheduledMaxAgeHours);
+            statement.setInt(5, Math.max(1, partitionCount));
+            statement.setArray(6, connection.createArrayOf("integer", partitions.toArray()));
+            statement.setInt(7, Math.max(1, limit));
+            statement.setLong(8, claimLeaseSeconds);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    results.add(new SyncCandidate(
+                            resultSet.getString(1),
+                            resultSet.getString(2),
+                            resultSet.getDouble(3)));
+                }
+            }
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to claim instagram sync queue batch", exception);
+        }
+        results.sort(Comparator.comparingDouble(SyncCandidate::score).reversed());
+        return results;
+    }
+
+    void markSynced(SyncCandidate candidate) {
+        executeForUsername(MARK_SYNCED_SQL, candidate.username());
+    }
+
+    void markFailed(SyncCandidate candidate) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(MARK_FAILED_SQL)) {
+            statement.setLong(1, FAILURE_BACKOFF_SECONDS);
+            statement.setLong(2, MAX_FAILURE_BACKOFF_SECONDS);
+            statement.setString(3, candidate.username());
+            statement.executeUpdate();
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to mark instagram sync failure for {}", candidate.username(), exception);
+        }
+    }
+
+    void release(List<SyncCandidate> candidates) {
+        for (SyncCandidate candidate : candidates) {
+            executeForUsername(RELEASE_SQL, candidate.username());
+        }
+    }
+
+    int countDue() {
+        ensureInitialized();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(COUNT_DUE_SQL)) {
+            statement.setLong(1, unscheduledMaxAgeHours);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : 0;
+            }
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to count instagram sync queue", exception);
+            return 0;
+        }
+    }
+
+    private void refillIfDue() {
+        long now = System.currentTimeMillis();
+        long last = lastRefillAt.get();
+        if (last > 0 && now - last < refillIntervalMs) {
+            return;
+        }
+        if (!lastRefillAt.compareAndSet(last, now)) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            int inserted = statement.executeUpdate(REFILL_SQL);
+            int pruned = statement.executeUpdate(PRUNE_SQL);
+            LOGGER.info("Instagram sync queue refilled (upserted={}, pruned={})", inserted, pruned);
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to refill instagram sync queue", exception);
+        }
+    }
+
+    private void flushDemand() {
+        if (pendingDemand.isEmpty()) {
+            return;
+        }
+        List<String> usernames = new ArrayList<>(pendingDemand.keySet());
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(RECORD_DEMAND_SQL)) {
+            for (String username : usernames) {
+                Integer count = pendingDemand.remove(username);
+                if (count == null || count <= 0) {
+                    continue;
+                }
+                statement.setDouble(1, DEMAND_DECAY_SECONDS);
+                statement.setDouble(2, count);
+                statement.setString(3, username);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to flush instagram sync demand", exception);
+        }
+    }
+
+    private void executeForUsername(String sql, String username) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, username);
+            statement.executeUpdate();
+        } catch (SQLException exception) {
+            LOGGER.warn("Failed to update instagram sync queue for {}", username, exception);
+        }
+    }
+
+    private void ensureInitialized() {
+        if (initialized.get()) {
+            return;
+        }
+        initLock.lock();
+        try {
+            if (initialized.get()) {
+                return;
+            }
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_QUEUE_TABLE_SQL);
+                statement.execute(InstagramNegativeCacheService.CREATE_NEGATIVE_CACHE_TABLE_SQL);
+                initialized.set(true);
+            } catch (SQLException exception) {
+                LOGGER.warn("Failed to create instagram sync queue table", exception);
+            }
+        } finally {
+            initLock.unlock();
+        }
+    }
+
+    private static String normalizeUsername(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    record SyncCandidate(String username, String lookupUsername, double score) {
+    }
+}
@@ -0,0 +1,65 @@
+package org.engine.pickerengine.service;
+
+final class InstagramTokenBucket {
+
+    private final double capacity;
+    private final double refillPerMs;
+    private double tokens;
+    private long lastRefillAt;
+
+    InstagramTokenBucket(double capacity, double refillPerSecond) {
+        this(capacity, refillPerSecond, System.currentTimeMillis());
+    }
+
+    InstagramTokenBucket(double capacity, double refillPerSecond, long nowMs) {
+        this.capacity = Math.max(1, capacity);
+        this.refillPerMs = Math.max(0, refillPerSecond) / 1000.0;
+        this.tokens = this.capacity;
+        this.lastRefillAt = nowMs;
+    }
+
+    boolean tryAcquire() {
+        return tryAcquire(System.currentTimeMillis());
+    }
+
+    synchronized boolean tryAcquire(long nowMs) {
+        refill(nowMs);
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    long millisUntilAvailable() {
+        return millisUntilAvailable(System.currentTimeMillis());
+    }
+
+    synchronized long millisUntilAvailable(long nowMs) {
+        refill(nowMs);
+        if (tokens >= 1) {
+            return 0;
+        }
+        if (refillPerMs <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return (long) Math.ceil((1 - tokens) / refillPerMs);
+    }
+
+    synchronized double availableTokens(long nowMs) {
+        refill(nowMs);
+        return tokens;
+    }
+
+    private void refill(long nowMs) {
+        if (nowMs <= lastRefillAt) {
+            return;
+        }
+        tokens = Math.min(capacity, tokens + (nowMs - lastRefillAt) * refillPerMs);
+        lastRefillAt = nowMs;
+    }
+}
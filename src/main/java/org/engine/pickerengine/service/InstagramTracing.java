@@ -0,0 +1,52 @@
+package org.engine.pickerengine.service;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+import java.util.function.Supplier;
+
+final class InstagramTracing {
+
+    static final String INSTRUMENTATION_NAME = "org.engine.pickerengine";
+
+    private InstagramTracing() {
+    }
+
+    static Tracer tracer(OpenTelemetry openTelemetry) {
+        return (openTelemetry == null ? OpenTelemetry.noop() : openTelemetry).getTracer(INSTRUMENTATION_NAME);
+    }
+
+    static <T> T inSpan(Tracer tracer, String name, Supplier<T> body) {
+        Span span = tracer.spanBuilder(name).startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            return body.get();
+        } catch (RuntimeException exception) {
+            markFailed(span, exception);
+            throw exception;
+        } finally {
+            span.end();
+        }
+    }
+
+    static void runInSpan(Tracer tracer, String name, Runnable body) {
+        inSpan(tracer, name, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    static Span startWait(Tracer tracer, String name, String waitKind) {
+        return tracer.spanBuilder(name)
+                .setAttribute("wait", true)
+                .setAttribute("wait.kind", waitKind)
+                .startSpan();
+    }
+
+    static void markFailed(Span span, Throwable exception) {
+        span.recordException(exception);
+        span.setStatus(StatusCode.ERROR);
+    }
+}
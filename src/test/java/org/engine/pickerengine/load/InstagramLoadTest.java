@@ -0,0 +1,187 @@
+package org.engine.pickerengine.load;
+
+import org.engine.pickerengine.config.InstagramProperties;
+import org.engine.pickerengine.dto.InstagramCircuitBreakerState;
+import org.engine.pickerengine.dto.InstagramSessionHealth;
+import org.engine.pickerengine.service.InstagramDmPromptService;
+import org.engine.pickerengine.service.InstagramDmService;
+import org.engine.pickerengine.service.InstagramModelUsageService;
+import org.engine.pickerengine.service.InstagramRequestDeadline;
+import org.engine.pickerengine.service.InstagramRequestLane;
+import org.engine.pickerengine.service.InstagramService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+public class InstagramLoadTest {
+
+    private final Map<String, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+
+    public static void main(String[] args) throws Exception {
+        new InstagramLoadTest().run();
+    }
+
+    private void run() throws Exception {
+        int durationSeconds = Integer.getInteger("load.duration-seconds", 30);
+        int interactiveWorkers = Integer.getInteger("load.interactive-workers", 8);
+        int backgroundWorkers = Integer.getInteger("load.background-workers", 32);
+        long deadlineMs = Long.getLong("load.deadline-ms", 5000);
+        String sessions = System.getProperty("load.sessions", "stub-a,stub-b,stub-c");
+
+        InstagramStubServer server = new InstagramStubServer(0, InstagramStubServer.FaultProfile.fromSystemProperties());
+        server.start();
+        try {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("instagram.sessionids", sessions);
+            settings.put("instagram.api-base-url", server.baseUrl());
+            settings.put("instagram.http.rate-limit-ms", Long.getLong("load.rate-limit-ms", 50));
+            settings.put("instagram.http.max-concurrency", Integer.getInteger("load.max-concurrency", 4));
+            settings.put("instagram.http.backoff-ms", Long.getLong("load.backoff-ms", 500));
+            settings.put("instagram.http.max-backoff-ms", Long.getLong("load.max-backoff-ms", 4000));
+            settings.put("instagram.http.circuit-breaker.cooldown-ms", 5000);
+            settings.put("instagram.http.circuit-breaker.max-open-ms", 60000);
+            settings.put("instagram.http.session-quarantine-max-ms", 60000);
+            InstagramProperties properties = new Binder(new MapConfigurationPropertySource(settings))
+                    .bindOrCreate("instagram", InstagramProperties.class);
+            InstagramService instagramService = new InstagramService(
+                    properties,
+                    null,
+                    null,
+                    null,
+                    meterRegistry,
+                    OpenTelemetry.noop());
+            InstagramDmService dmService = new InstagramDmService(
+                    null,
+                    instagramService,
+                    new InstagramDmPromptService("v1"),
+                    "stub-key",
+                    "gpt-4o-mini",
+                    "v1",
+                    20,
+                    server.baseUrl(),
+                    meterRegistry,
+                    new InstagramModelUsageService(null, meterRegistry),
+                    OpenTelemetry.noop());
+
+            long endAt = System.currentTimeMillis() + durationSeconds * 1000L;
+            long startedAt = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < interactiveWorkers; i++) {
+                    executor.submit(() -> interactiveLoop(instagramService, dmService, deadlineMs, endAt));
+                }
+                for (int i = 0; i < backgroundWorkers; i++) {
+                    executor.submit(() -> backgroundLoop(instagramService, endAt));
+                }
+            }
+            double elapsedSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            report(elapsedSeconds, instagramService, server);
+        } finally {
+            server.stop();
+        }
+    }
+
+    private void interactiveLoop(
+            InstagramService instagramService,
+            InstagramDmService dmService,
+            long deadlineMs,
+            long endAt) {
+        while (System.currentTimeMillis() < endAt) {
+            InstagramRequestLane.markInteractive();
+            InstagramRequestDeadline.start(deadlineMs);
+            try {
+                int pick = ThreadLocalRandom.current().nextInt(10);
+                if (pick < 5) {
+                    measure("interactive.profile", () -> instagramService.fetchAccountId(randomUsername()) != null);
+                } else if (pick < 8) {
+                    measure("interactive.topsearch", () -> !instagramService.searchKeyword("cafe").status().isBlank());
+                } else {
+                    measure("interactive.dm", () -> !dmService.generateDmFromKeywords(
+                            List.of("카페", "디저트", "브런치"), null, null).message().isBlank());
+                }
+            } finally {
+                InstagramRequestDeadline.clear();
+                InstagramRequestLane.clear();
+            }
+        }
+    }
+
+    private void backgroundLoop(InstagramService instagramService, long endAt) {
+        while (System.currentTimeMillis() < endAt) {
+            if (ThreadLocalRandom.current().nextInt(4) == 0) {
+                measure("background.top_serp", () -> !instagramService.searchKeywordUsersExpanded("cafe", 2).isEmpty());
+            } else {
+                measure("background.profile", () -> instagramService.fetchAccountId(randomUsername()) != null);
+            }
+        }
+    }
+
+    private void measure(String operation, BooleanSupplier call) {
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            ok = call.getAsBoolean();
+        } catch (RuntimeException exception) {
+            ok = false;
+        }
+        latencies.computeIfAbsent(operation, key -> new ConcurrentLinkedQueue<>()).add(System.nanoTime() - start);
+        if (!ok) {
+            failures.computeIfAbsent(operation, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private void report(double elapsedSeconds, InstagramService instagramService, InstagramStubServer server) {
+        System.out.printf(Locale.ROOT, "%-24s %8s %9s %8s %8s %8s %8s %8s%n",
+                "operation", "count", "req/s", "failed", "p50ms", "p95ms", "p99ms", "maxms");
+        for (Map.Entry<String, ConcurrentLinkedQueue<Long>> entry : new TreeMap<>(latencies).entrySet()) {
+            List<Long> samples = new ArrayList<>(entry.getValue());
+            Collections.sort(samples);
+            AtomicLong failed = failures.get(entry.getKey());
+            System.out.printf(Locale.ROOT, "%-24s %8d %9.1f %8d %8.1f %8.1f %8.1f %8.1f%n",
+                    entry.getKey(),
+                    samples.size(),
+                    samples.size() / elapsedSeconds,
+                    failed == null ? 0 : failed.get(),
+                    percentileMs(samples, 0.50),
+                    percentileMs(samples, 0.95),
+                    percentileMs(samples, 0.99),
+                    percentileMs(samples, 1.0));
+        }
+        System.out.println("stub responses by status: " + server.statusCounts());
+        for (InstagramCircuitBreakerState breaker : instagramService.getCircuitBreakers()) {
+            System.out.println("breaker " + breaker);
+        }
+        for (InstagramSessionHealth session : instagramService.getSessionHealth()) {
+            System.out.println("session " + session);
+        }
+    }
+
+    private static double percentileMs(List<Long> sortedNanos, double percentile) {
+        if (sortedNanos.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(0, Math.min(index, sortedNanos.size() - 1))) / 1_000_000.0;
+    }
+
+    private static String randomUsername() {
+        return "creator." + ThreadLocalRandom.current().nextInt(10_000);
+    }
+}
@@ -0,0 +1,170 @@
+package org.engine.pickerengine.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+public class InstagramStubServer {
+
+    private static final Map<String, String> ROUTES = new LinkedHashMap<>();
+
+    static {
+        ROUTES.put("/api/v1/users/web_profile_info/", "web_profile_info.json");
+        ROUTES.put("/api/v1/feed/user/", "feed_user.json");
+        ROUTES.put("/api/v1/web/search/topsearch/", "topsearch.json");
+        ROUTES.put("/api/v1/fbsearch/web/top_serp/", "top_serp.json");
+        ROUTES.put("/api/v1/tags/", "tag_sections.json");
+        ROUTES.put("/v1/responses", "responses.json");
+    }
+
+    private final FaultProfile faults;
+    private final HttpServer server;
+    private final Map<String, byte[]> fixtures = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> statusCounts = new ConcurrentHashMap<>();
+
+    public InstagramStubServer(int port, FaultProfile faults) throws IOException {
+        this.faults = faults;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public Map<Integer, Long> statusCounts() {
+        Map<Integer, Long> results = new LinkedHashMap<>();
+        statusCounts.forEach((status, count) -> results.put(status, count.get()));
+        return results;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            sleepLatency();
+            String path = exchange.getRequestURI().getPath();
+            String fixture = resolveFixture(path);
+            if (fixture == null) {
+                respond(exchange, 404, "{\"status\":\"fail\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            boolean instagram = path.startsWith("/api/");
+            if (instagram && random.nextDouble() < faults.throttleRate()) {
+                exchange.getResponseHeaders().add("Retry-After", String.valueOf(faults.retryAfterSeconds()));
+                respond(exchange, 429, "{\"message\":\"Please wait a few minutes before you try again.\",\"status\":\"fail\"}"
+                        .getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if (random.nextDouble() < faults.errorRate()) {
+                respond(exchange, 503, "{\"status\":\"fail\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            respond(exchange, 200, fixtures.computeIfAbsent(fixture, InstagramStubServer::readFixture));
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        statusCounts.computeIfAbsent(status, key -> new AtomicLong()).incrementAndGet();
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip") && body.length > 0) {
+            body = gzip(body);
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(body);
+        }
+        return output.toByteArray();
+    }
+
+    private void sleepLatency() {
+        long latency = faults.latencyMs();
+        if (faults.latencyJitterMs() > 0) {
+            latency += ThreadLocalRandom.current().nextLong(faults.latencyJitterMs() + 1);
+        }
+        if (latency <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String resolveFixture(String path) {
+        for (Map.Entry<String, String> route : ROUTES.entrySet()) {
+            if (path.startsWith(route.getKey())) {
+                return route.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static byte[] readFixture(String name) {
+        try (InputStream input = InstagramStubServer.class.getResourceAsStream("/stub/" + name)) {
+            if (input == null) {
+                throw new IllegalStateException("Missing stub fixture: " + name);
+            }
+            return input.readAllBytes();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public record FaultProfile(
+            long latencyMs,
+            long latencyJitterMs,
+            double throttleRate,
+            int retryAfterSeconds,
+            double errorRate
+    ) {
+        public static FaultProfile fromSystemProperties() {
+            return new FaultProfile(
+                    Long.getLong("load.latency-ms", 80),
+                    Long.getLong("load.latency-jitter-ms", 120),
+                    Double.parseDouble(System.getProperty("load.throttle-rate", "0.02")),
+                    Integer.getInteger("load.retry-after-seconds", 2),
+                    Double.parseDouble(System.getProperty("load.error-rate", "0.01")));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = Integer.getInteger("load.port", 18080);
+        InstagramStubServer server = new InstagramStubServer(port, FaultProfile.fromSystemProperties());
+        server.start();
+        System.out.println("Instagram/OpenAI stub server listening on " + server.baseUrl());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,141 @@
+package org.engine.pickerengine.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.engine.pickerengine.dto.InstagramPost;
+import org.engine.pickerengine.dto.InstagramProfile;
+import org.engine.pickerengine.dto.InstagramProfileWithPosts;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstagramArchiveReparseServiceTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void reparsesArchivedResponsesIntoCachedProfile() throws Exception {
+        DataSource dataSource = PostgresTestDatabase.dataSourceOrSkip();
+        Path directory = Files.createTempDirectory("instagram-archive-test");
+        InstagramRawArchiveService archiveService = new InstagramRawArchiveService(
+                dataSource, true, directory.toString(), 1, 0);
+        RecordingCacheService cacheService = new RecordingCacheService();
+        InstagramArchiveReparseService reparseService = new InstagramArchiveReparseService(archiveService, cacheService);
+        String username = "archive_test_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        try {
+            archiveService.archive(username, InstagramRawArchiveService.KIND_PROFILE, stub("web_profile_info.json"));
+            archiveService.archive(username, InstagramRawArchiveService.KIND_FEED, stub("feed_user.json"));
+            // Identical bodies are stored once and referenced twice.
+            archiveService.archive(username, InstagramRawArchiveService.KIND_FEED, stub("feed_user.json"));
+
+            assertEquals(18, reparseService.reparseUsername(username));
+
+            assertNotNull(cacheService.profile);
+            assertEquals(username, cacheService.profile.username());
+            assertEquals(48213, cacheService.profile.followers());
+            assertEquals("Sample Creator", cacheService.profile.fullName());
+            assertEquals(18, cacheService.posts.size());
+            assertNotNull(cacheService.fetchedAt);
+            for (int i = 1; i < cacheService.posts.size(); i++) {
+                // Newest first, as the live fetch stores them.
+                assertTrue(cacheService.posts.get(i - 1).takenAtEpochSeconds()
+                        >= cacheService.posts.get(i).takenAtEpochSeconds());
+            }
+        } finally {
+            archiveService.close();
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                         "DELETE FROM instagram_raw_archive WHERE username = ?")) {
+                statement.setString(1, username);
+                statement.executeUpdate();
+            }
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    @Test
+    void laterFetchRoundPrunesPostsMissingFromItsFeedWindow() throws Exception {
+        DataSource dataSource = PostgresTestDatabase.dataSourceOrSkip();
+        Path directory = Files.createTempDirectory("instagram-archive-test");
+        InstagramRawArchiveService archiveService = new InstagramRawArchiveService(
+                dataSource, true, directory.toString(), 1, 0);
+        RecordingCacheService cacheService = new RecordingCacheService();
+        InstagramArchiveReparseService reparseService = new InstagramArchiveReparseService(archiveService, cacheService);
+        String username = "archive_test_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        try {
+            archiveService.archive(username, InstagramRawArchiveService.KIND_PROFILE, stub("web_profile_info.json"));
+            archiveService.archive(username, InstagramRawArchiveService.KIND_FEED, stub("feed_user.json"));
+            // The next refresh no longer sees an unpinned post: it was deleted in between.
+            ObjectNode feed = (ObjectNode) OBJECT_MAPPER.readTree(stub("feed_user.json"));
+            ArrayNode items = (ArrayNode) feed.path("items");
+            String deletedId = InstagramService.parsePost(items.get(3)).postId();
+            items.remove(3);
+            archiveService.archive(username, InstagramRawArchiveService.KIND_PROFILE, stub("web_profile_info.json"));
+            archiveService.archive(username, InstagramRawArchiveService.KIND_FEED, OBJECT_MAPPER.writeValueAsString(feed));
+
+            assertEquals(17, reparseService.reparseUsername(username));
+            assertTrue(cacheService.posts.stream().noneMatch(post -> post.postId().equals(deletedId)));
+        } finally {
+            archiveService.close();
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                         "DELETE FROM instagram_raw_archive WHERE username = ?")) {
+                statement.setString(1, username);
+                statement.executeUpdate();
+            }
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private static String stub(String name) throws Exception {
+        try (InputStream input = InstagramArchiveReparseServiceTest.class.getResourceAsStream("/stub/" + name)) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class RecordingCacheService extends InstagramCacheService {
+
+        private InstagramProfile profile;
+        private List<InstagramPost> posts;
+        private LocalDateTime fetchedAt;
+
+        RecordingCacheService() {
+            super(null, null, null, null, 12, 4320, 4320, 200, null, null);
+        }
+
+        @Override
+        public InstagramProfileWithPosts rebuildProfileWithPosts(
+                InstagramProfile profile,
+                List<InstagramPost> posts,
+                LocalDateTime fetchedAt) {
+            this.profile = profile;
+            this.posts = posts;
+            this.fetchedAt = fetchedAt;
+            return new InstagramProfileWithPosts(profile, posts);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.engine.pickerengine.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstagramCircuitBreakerTest {
+
+    @Test
+    void halfOpenAllowsSingleProbeAndReopensWithLongerWindow() {
+        InstagramCircuitBreaker breaker = new InstagramCircuitBreaker("fbsearch", 2, 1000, 10_000);
+        breaker.onFailure(0);
+        assertTrue(breaker.tryAcquire(0));
+        breaker.onFailure(0);
+        assertEquals(InstagramCircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire(999));
+
+        assertTrue(breaker.tryAcquire(1000));
+        assertFalse(breaker.tryAcquire(1000));
+        breaker.onFailure(1000);
+        assertEquals(2000, breaker.millisUntilRetry(1000));
+
+        assertTrue(breaker.tryAcquire(3000));
+        breaker.onSuccess(3000);
+        assertEquals(InstagramCircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire(3000));
+    }
+}
@@ -0,0 +1,245 @@
+package org.engine.pickerengine.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class InstagramImportServiceTest {
+
+    private static final String[] PROFILE_COLUMNS = {
+            "username", "full_name", "biography", "profile_pic_url", "followers", "following",
+            "media_count", "external_url", "category_name", "is_private", "is_verified", "updated_at"
+    };
+    private static final String[] POST_COLUMNS = {
+            "post_id", "username", "shortcode", "caption", "thumbnail_url", "display_url", "permalink",
+            "is_video", "video_view_count", "like_count", "comment_count", "taken_at", "media_type", "updated_at"
+    };
+
+    @Test
+    void readsQuotedCsvRecords() throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader(
+                "\uFEFFusername,bio\r\n"
+                        + "alpha,\"likes, commas\"\n"
+                        + "\"beta\",\"line one\nline \"\"two\"\"\"\n"));
+
+        assertEquals(List.of("username", "bio"), InstagramImportService.readCsvRecord(reader));
+        assertEquals(List.of("alpha", "likes, commas"), InstagramImportService.readCsvRecord(reader));
+        assertEquals(List.of("beta", "line one\nline \"two\""), InstagramImportService.readCsvRecord(reader));
+        assertNull(InstagramImportService.readCsvRecord(reader));
+    }
+
+    @Test
+    void normalizesHandlesAndProfileUrls() {
+        assertEquals("creator.one", InstagramImportService.normalizeUsername("  @Creator.One "));
+        assertEquals("creator_two", InstagramImportService.normalizeUsername("https://www.instagram.com/Creator_Two/?hl=ko"));
+        assertEquals("", InstagramImportService.normalizeUsername(null));
+    }
+
+    @Test
+    void importsCsvUsernamesIntoInfluencerOnce() throws Exception {
+        DataSource dataSource = dataSourceWithTables();
+        InstagramImportService service = service(dataSource);
+        String alpha = username("alpha");
+        String beta = username("beta");
+        String csv = "handle,tier\n"
+                + "@" + alpha.toUpperCase() + ",A\n"
+                + "https://www.instagram.com/" + alpha + "/,B\n"
+                + beta + ",\n";
+        try {
+            InstagramImportService.ImportResult first = service.importCsv(
+                    new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), null, "C");
+            assertEquals(3, first.rowsRead());
+            assertEquals(2, first.distinctUsernames());
+            assertEquals(2, first.influencersInserted());
+            // Duplicates collapse to the best tier; rows without one take the default.
+            assertEquals("A", influencerTier(dataSource, alpha));
+            assertEquals("C", influencerTier(dataSource, beta));
+
+            InstagramImportService.ImportResult second = service.importCsv(
+                    new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), null, "C");
+            assertEquals(0, second.influencersInserted());
+            assertEquals(2, second.alreadyKnown());
+        } finally {
+            cleanUp(dataSource, alpha, beta);
+        }
+    }
+
+    @Test
+    void importsSqliteProfilesAndPostsWithNewerRowsWinning() throws Exception {
+        DataSource dataSource = dataSourceWithTables();
+        InstagramImportService service = service(dataSource);
+        String gamma = username("gamma");
+        String delta = username("delta");
+        String epsilon = username("epsilon");
+        Path file = Files.createTempFile("instagram-import-test", ".db");
+        Instant now = Instant.now();
+        String recent = now.minus(7, ChronoUnit.DAYS).toString();
+        String earliest = now.minus(14, ChronoUnit.DAYS).minus(1, ChronoUnit.HOURS).toString();
+        try {
+            execute(dataSource, """
+                    INSERT INTO instagram_profiles (
+                        username, followers, following, media_count, is_private, is_verified, updated_at)
+                    VALUES (?, 999, 0, 0, false, false, TIMESTAMP '2030-01-01 00:00:00')
+                    """, delta);
+            try (Connection sqlite = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath());
+                 Statement statement = sqlite.createStatement()) {
+                statement.execute("CREATE TABLE profiles (" + String.join(", ", PROFILE_COLUMNS) + ")");
+                statement.execute("CREATE TABLE posts (" + String.join(", ", POST_COLUMNS) + ")");
+                statement.execute(profileRow(gamma, 100, "2024-01-01 00:00:00"));
+                statement.execute(profileRow(" " + gamma.toUpperCase() + " ", 200, "2024-06-01 12:00:00"));
+                statement.execute(profileRow(delta, 5, "2024-06-01 12:00:00"));
+                statement.execute(profileRow(epsilon, 7, "2024-06-01 12:00:00"));
+                statement.execute(postRow(gamma + "_p1", gamma, 1, recent, "2024-01-01 00:00:00"));
+                statement.execute(postRow(gamma + "_p1", gamma, 50, recent, "2024-06-01 12:00:00"));
+                statement.execute(postRow(gamma + "_p2", gamma, 3, earliest, "2024-06-01 12:00:00"));
+            }
+
+            InstagramImportService.ImportResult result = service.importSqlite(file, "B");
+
+            assertEquals(4, result.rowsRead());
+            assertEquals(3, result.distinctUsernames());
+            assertEquals(3, result.influencersInserted());
+            // DISTINCT ON keeps the newest staged row; SQLite's UTC timestamps are stored as local time.
+            assertEquals(200, profileInt(dataSource, gamma, "followers"));
+            assertEquals(
+                    LocalDateTime.ofInstant(Instant.parse("2024-06-01T12:00:00Z"), ZoneId.systemDefault()),
+                    profileTimestamp(dataSource, gamma, "updated_at"));
+            // The cached row is newer than the import, so it is left alone.
+            assertEquals(999, profileInt(dataSource, delta, "followers"));
+            assertEquals(50, queryInt(dataSource,
+                    "SELECT like_count FROM instagram_posts WHERE post_id = ?", gamma + "_p1"));
+            assertEquals(2, queryInt(dataSource,
+                    "SELECT count(*) FROM instagram_posts WHERE username = ?", gamma));
+            // Two posts over two weeks is one per week: a 168h cadence from import time.
+            assertEquals(168.0, hoursUntilRefresh(dataSource, gamma), 0.1);
+            // No cached posts falls back to the max interval.
+            assertEquals(4320.0, hoursUntilRefresh(dataSource, epsilon), 0.1);
+            assertEquals("B", influencerTier(dataSource, gamma));
+        } finally {
+            Files.deleteIfExists(file);
+            cleanUp(dataSource, gamma, delta, epsilon);
+        }
+    }
+
+    private static DataSource dataSourceWithTables() throws Exception {
+        DataSource dataSource = PostgresTestDatabase.dataSourceOrSkip();
+        // These tables belong to JPA and the influencer service; the test only runs where they exist.
+        for (String table : List.of("instagram_profiles", "instagram_posts", "influencer")) {
+            assumeTrue(queryInt(dataSource, """
+                    SELECT count(*) FROM information_schema.tables
+                    WHERE table_schema = current_schema() AND table_name = ?
+                    """, table) > 0, table + " does not exist");
+        }
+        return dataSource;
+    }
+
+    private static InstagramImportService service(DataSource dataSource) {
+        InstagramSyncQueueService queueService = new InstagramSyncQueueService(dataSource, 24, 900, 600_000, 4320);
+        return new InstagramImportService(dataSource, queueService, 12, 4320);
+    }
+
+    private static String username(String prefix) {
+        return "import_" + prefix + "_" + UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+    }
+
+    private static String profileRow(String username, int followers, String updatedAt) {
+        return "INSERT INTO profiles VALUES ('" + username + "', 'Name', '', '', " + followers
+                + ", 10, 3, '', '', 0, 1, '" + updatedAt + "')";
+    }
+
+    private static String postRow(String postId, String username, int likes, String takenAt, String updatedAt) {
+        return "INSERT INTO posts VALUES ('" + postId + "', '" + username + "', 'code', '', '', '', '', 0, NULL, "
+                + likes + ", 0, '" + takenAt + "', '1', '" + updatedAt + "')";
+    }
+
+    private static String influencerTier(DataSource dataSource, String username) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT priority_tier FROM influencer WHERE platform = 'instagram' AND username = ?")) {
+            statement.setString(1, username);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private static int profileInt(DataSource dataSource, String username, String column) throws Exception {
+        return queryInt(dataSource, "SELECT " + column + " FROM instagram_profiles WHERE username = ?", username);
+    }
+
+    private static LocalDateTime profileTimestamp(DataSource dataSource, String username, String column)
+            throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT " + column + " FROM instagram_profiles WHERE username = ?")) {
+            statement.setString(1, username);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                Timestamp value = resultSet.next() ? resultSet.getTimestamp(1) : null;
+                return value == null ? null : value.toLocalDateTime();
+            }
+        }
+    }
+
+    private static double hoursUntilRefresh(DataSource dataSource, String username) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("""
+                     SELECT EXTRACT(EPOCH FROM (next_refresh_at - LOCALTIMESTAMP)) / 3600
+                     FROM instagram_profiles
+                     WHERE username = ?
+                     """)) {
+            statement.setString(1, username);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getDouble(1) : -1;
+            }
+        }
+    }
+
+    private static int queryInt(DataSource dataSource, String sql, String param) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, param);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : -1;
+            }
+        }
+    }
+
+    private static void execute(DataSource dataSource, String sql, String param) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, param);
+            statement.executeUpdate();
+        }
+    }
+
+    private static void cleanUp(DataSource dataSource, String... usernames) throws Exception {
+        for (String username : usernames) {
+            execute(dataSource, "DELETE FROM influencer WHERE platform = 'instagram' AND username = ?", username);
+            execute(dataSource, "DELETE FROM instagram_posts WHERE username = ?", username);
+            execute(dataSource, "DELETE FROM instagram_profiles WHERE username = ?", username);
+        }
+    }
+}
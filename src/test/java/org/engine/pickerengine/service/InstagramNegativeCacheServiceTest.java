@@ -0,0 +1,111 @@
+package org.engine.pickerengine.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstagramNegativeCacheServiceTest {
+
+    @Test
+    void backoffDoublesPerRepeatedFailureAndResetsWhenKindChanges() throws Exception {
+        DataSource dataSource = PostgresTestDatabase.dataSourceOrSkip();
+        InstagramNegativeCacheService service = new InstagramNegativeCacheService(dataSource, true, 720, 0);
+        String username = username();
+        try {
+            service.recordFailure(username, InstagramNegativeCacheService.FailureKind.NOT_FOUND);
+            assertEquals(1, failures(dataSource, username));
+            assertEquals(24 * 3600, recheckSeconds(dataSource, username), 5);
+
+            service.recordFailure(username, InstagramNegativeCacheService.FailureKind.NOT_FOUND);
+            assertEquals(2, failures(dataSource, username));
+            assertEquals(2 * 24 * 3600, recheckSeconds(dataSource, username), 5);
+
+            service.recordFailure(username, InstagramNegativeCacheService.FailureKind.PRIVATE);
+            assertEquals(1, failures(dataSource, username));
+            assertEquals(72 * 3600, recheckSeconds(dataSource, username), 5);
+            assertEquals(InstagramNegativeCacheService.FailureKind.PRIVATE, service.findKind(username));
+        } finally {
+            delete(dataSource, username);
+        }
+    }
+
+    @Test
+    void backoffIsCappedAtMaxRecheck() throws Exception {
+        DataSource dataSource = PostgresTestDatabase.dataSourceOrSkip();
+        InstagramNegativeCacheService service = new InstagramNegativeCacheService(dataSource, true, 48, 0);
+        String username = username();
+        try {
+            for (int i = 0; i < 4; i++) {
+                service.recordFailure(username, InstagramNegativeCacheService.FailureKind.NOT_FOUND);
+            }
+            assertEquals(4, failures(dataSource, username));
+            assertEquals(48 * 3600, recheckSeconds(dataSource, username), 5);
+        } finally {
+            delete(dataSource, username);
+        }
+    }
+
+    @Test
+    void clearRemovesRowRecordedByAnotherInstance() throws Exception {
+        DataSource dataSource = PostgresTestDatabase.dataSourceOrSkip();
+        InstagramNegativeCacheService writer = new InstagramNegativeCacheService(dataSource, true, 720, 0);
+        String username = username();
+        try {
+            writer.recordFailure(username, InstagramNegativeCacheService.FailureKind.NOT_FOUND);
+            assertTrue(new InstagramNegativeCacheService(dataSource, true, 720, 0).isSuppressed(username));
+
+            // A fresh instance has nothing in memory, as after a restart.
+            new InstagramNegativeCacheService(dataSource, true, 720, 0).clear(username);
+
+            assertEquals(0, failures(dataSource, username));
+            assertNull(new InstagramNegativeCacheService(dataSource, true, 720, 0).findKind(username));
+            assertFalse(writer.isSuppressed(username));
+        } finally {
+            delete(dataSource, username);
+        }
+    }
+
+    private static String username() {
+        return "negative_test_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    }
+
+    private static int failures(DataSource dataSource, String username) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT failures FROM instagram_negative_cache WHERE username = ?")) {
+            statement.setString(1, username);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : 0;
+            }
+        }
+    }
+
+    private static double recheckSeconds(DataSource dataSource, String username) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT EXTRACT(EPOCH FROM (recheck_at - last_seen_at)) FROM instagram_negative_cache WHERE username = ?")) {
+            statement.setString(1, username);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getDouble(1) : -1;
+            }
+        }
+    }
+
+    private static void delete(DataSource dataSource, String username) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "DELETE FROM instagram_negative_cache WHERE username = ?")) {
+            statement.setString(1, username);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.engine.pickerengine.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InstagramRefreshPolicyTest {
+
+    @Test
+    void dormantCreatorFallsBackToMaxInterval() {
+        assertEquals(4320, InstagramRefreshPolicy.computeIntervalHours(null, 0, 12, 4320));
+    }
+
+    @Test
+    void followerVelocityShortensInterval() {
+        double velocity = InstagramRefreshPolicy.followerChangePerDay(10000, 10700, Duration.ofDays(7));
+        long hours = InstagramRefreshPolicy.computeIntervalHours(1.0, velocity, 12, 4320);
+        assertEquals(84, hours);
+    }
+
+    @Test
+    void postsPerWeekMeasuresUpToNow() {
+        Instant now = Instant.parse("2024-03-29T00:00:00Z");
+        Double perWeek = InstagramRefreshPolicy.postsPerWeek(
+                new long[] {
+                        Instant.parse("2024-03-01T00:00:00Z").getEpochSecond(),
+                        Instant.parse("2024-03-08T00:00:00Z").getEpochSecond()
+                },
+                now);
+        assertEquals(0.5, perWeek, 0.0001);
+    }
+}
@@ -0,0 +1,34 @@
+package org.engine.pickerengine.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InstagramResponseBodiesTest {
+
+    private static final String BODY = "{\"items\":[{\"id\":\"1\",\"caption\":{\"text\":\"café ☕\"}}]}";
+
+    @Test
+    void decodesGzipAndDeflateBodies() throws IOException {
+        byte[] raw = BODY.getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(gzipped)) {
+            output.write(raw);
+        }
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        try (DeflaterOutputStream output = new DeflaterOutputStream(deflated)) {
+            output.write(raw);
+        }
+
+        assertEquals(BODY, InstagramResponseBodies.decode(gzipped.toByteArray(), "gzip"));
+        assertEquals(BODY, InstagramResponseBodies.decode(deflated.toByteArray(), "Deflate"));
+        assertEquals(BODY, InstagramResponseBodies.decode(raw, ""));
+    }
+}
@@ -0,0 +1,116 @@
+package org.engine.pickerengine.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.engine.pickerengine.dto.InstagramPost;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstagramServiceFeedPageTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final long NOW = 1_700_000_000L;
+    private static final long DAY = 86_400L;
+
+    @Test
+    void stopsAtFirstKnownPostOutsideRecencyWindow() {
+        JsonNode items = items(
+                item("p5", NOW - DAY, false),
+                item("p4", NOW - 2 * DAY, false),
+                item("p3", NOW - 30 * DAY, false),
+                item("p2", NOW - 31 * DAY, false));
+        Set<String> seen = new HashSet<>();
+
+        InstagramService.FeedPage page = InstagramService.scanFeedPage(
+                items, Set.of("p4", "p3", "p2"), seen, NOW - 14 * DAY, 0, 50);
+
+        assertEquals(List.of("p5"), ids(page.newPosts()));
+        assertEquals(List.of("p4"), ids(page.recentKnownPosts()));
+        assertTrue(page.reachedEnd());
+        assertEquals(NOW - 30 * DAY, page.oldestTakenAt());
+        assertFalse(seen.contains("p2"));
+    }
+
+    @Test
+    void pinnedKnownPostsDoNotStopTheWalkOrWidenTheWindow() {
+        JsonNode items = items(
+                item("old-pinned", NOW - 400 * DAY, true),
+                item("p2", NOW - DAY, false),
+                item("p1", NOW - 2 * DAY, false));
+
+        InstagramService.FeedPage page = InstagramService.scanFeedPage(
+                items, Set.of("old-pinned"), new HashSet<>(), Long.MAX_VALUE, 0, 50);
+
+        assertEquals(List.of("p2", "p1"), ids(page.newPosts()));
+        assertEquals(List.of("old-pinned"), ids(page.recentKnownPosts()));
+        assertFalse(page.reachedEnd());
+        assertEquals(NOW - 2 * DAY, page.oldestTakenAt());
+    }
+
+    @Test
+    void skipsPostsAlreadySeenOnEarlierPages() {
+        Set<String> seen = new HashSet<>();
+        InstagramService.FeedPage first = InstagramService.scanFeedPage(
+                items(item("p3", NOW - DAY, false), item("p2", NOW - 2 * DAY, false)),
+                Set.of(), seen, Long.MAX_VALUE, 0, 50);
+        // Cursor overlap repeats p2 at the top of the next page.
+        InstagramService.FeedPage second = InstagramService.scanFeedPage(
+                items(item("p2", NOW - 2 * DAY, false), item("p2", NOW - 2 * DAY, false), item("p1", NOW - 3 * DAY, false)),
+                Set.of(), seen, Long.MAX_VALUE, 0, 50);
+
+        assertEquals(List.of("p3", "p2"), ids(first.newPosts()));
+        assertEquals(List.of("p1"), ids(second.newPosts()));
+        assertEquals(Set.of("p1", "p2", "p3"), seen);
+    }
+
+    @Test
+    void stopsAtPostLimitAndAgeCutoff() {
+        JsonNode items = items(
+                item("p4", NOW - DAY, false),
+                item("p3", NOW - 2 * DAY, false),
+                item("p2", NOW - 400 * DAY, false));
+
+        InstagramService.FeedPage limited = InstagramService.scanFeedPage(
+                items, Set.of(), new HashSet<>(), Long.MAX_VALUE, 0, 1);
+        assertEquals(List.of("p4"), ids(limited.newPosts()));
+        assertTrue(limited.reachedEnd());
+
+        InstagramService.FeedPage cutoff = InstagramService.scanFeedPage(
+                items, Set.of(), new HashSet<>(), Long.MAX_VALUE, NOW - 365 * DAY, 50);
+        assertEquals(List.of("p4", "p3"), ids(cutoff.newPosts()));
+        assertTrue(cutoff.reachedEnd());
+    }
+
+    private static JsonNode items(ObjectNode... items) {
+        ArrayNode array = OBJECT_MAPPER.createArrayNode();
+        for (ObjectNode item : items) {
+            array.add(item);
+        }
+        return array;
+    }
+
+    private static ObjectNode item(String id, long takenAt, boolean pinned) {
+        ObjectNode item = OBJECT_MAPPER.createObjectNode();
+        item.put("id", id);
+        item.put("code", "c" + id);
+        item.put("taken_at", takenAt);
+        item.put("media_type", 1);
+        if (pinned) {
+            item.putArray("timeline_pinned_user_ids").add(1L);
+        }
+        return item;
+    }
+
+    private static List<String> ids(List<InstagramPost> posts) {
+        return posts.stream().map(InstagramPost::postId).toList();
+    }
+}
@@ -0,0 +1,91 @@
+package org.engine.pickerengine.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class InstagramSessionPoolTest {
+
+    private static final InstagramSessionPool.Lane INTERACTIVE = InstagramSessionPool.Lane.INTERACTIVE;
+
+    @Test
+    void quarantinesSessionThrottledAcrossFamiliesAndRoutesToHealthyOne() {
+        InstagramSessionPool pool = new InstagramSessionPool(List.of("a", "b"), 1, 0, 2, 60_000, 600_000, 0.3, 3);
+        long now = System.currentTimeMillis();
+
+        InstagramSessionPool.Lease first = pool.tryAcquire(INTERACTIVE, InstagramEndpointFamily.PROFILE, now);
+        assertEquals("a", first.sessionId());
+        first.release();
+        first.onThrottled(now, 0);
+
+        // A second 429 on the same family alone would only extend that family's cooldown.
+        InstagramSessionPool.Lease held = pool.tryAcquire(INTERACTIVE, InstagramEndpointFamily.FEED, now);
+        assertEquals("b", held.sessionId());
+        InstagramSessionPool.Lease feed = pool.tryAcquire(INTERACTIVE, InstagramEndpointFamily.FEED, now);
+        assertEquals("a", feed.sessionId());
+        feed.release();
+        feed.onThrottled(now, 0);
+        held.release();
+        assertEquals("quarantined", pool.health().get(0).state());
+
+        InstagramSessionPool.Lease routed = pool.tryAcquire(INTERACTIVE, InstagramEndpointFamily.PROFILE, now);
+        assertEquals("b", routed.sessionId());
+        assertNull(pool.tryAcquire(INTERACTIVE, InstagramEndpointFamily.PROFILE, now));
+        routed.release();
+    }
+
+    @Test
+    void throttledFamilyDoesNotBlockOtherFamiliesOnSingleSession() {
+        InstagramSessionPool pool = new InstagramSessionPool(List.of("a"), 1, 0, 2, 60_000, 600_000, 0.3, 3);
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < 3; i++) {
+            InstagramSessionPool.Lease search = pool.tryAcquire(INTERACTIVE, InstagramEndpointFamily.FBSEARCH, now);
+            assertNotNull(search);
+            search.release();
+            search.onThrottled(now, i == 2 ? 60_000 : 0);
+        }
+
+        assertNull(pool.tryAcquire(INTERACTIVE, InstagramEndpointFamily.FBSEARCH, now));
+        assertEquals("cooling", pool.health().get(0).state());
+        InstagramSessionPool.Lease profile = pool.tryAcquire(INTERACTIVE, InstagramEndpointFamily.PROFILE, now);
+        assertNotNull(profile);
+        profile.release();
+        assertNotNull(pool.tryAcquire(INTERACTIVE, InstagramEndpointFamily.FEED, now));
+    }
+
+    @Test
+    void authFailureQuarantinesTheWholeSession() {
+        InstagramSessionPool pool = new InstagramSessionPool(List.of("a"), 1, 0, 6, 60_000, 600_000, 0.3, 3);
+        long now = System.currentTimeMillis();
+
+        InstagramSessionPool.Lease lease = pool.tryAcquire(INTERACTIVE, InstagramEndpointFamily.PROFILE, now);
+        lease.release();
+        lease.onAuthFailure(now, 401);
+
+        assertEquals("quarantined", pool.health().get(0).state());
+        for (InstagramEndpointFamily family : InstagramEndpointFamily.values()) {
+            assertNull(pool.tryAcquire(INTERACTIVE, family, now));
+        }
+    }
+
+    @Test
+    void backgroundLaneLeavesReservedCapacityForInteractive() {
+        InstagramSessionPool pool = new InstagramSessionPool(List.of("a", "b"), 1, 1000, 0, 0, 0, 0.5, 3);
+        long now = System.currentTimeMillis();
+
+        InstagramSessionPool.Lease background =
+                pool.tryAcquire(InstagramSessionPool.Lane.BACKGROUND, InstagramEndpointFamily.PROFILE, now);
+        assertNotNull(background);
+        background.release();
+        assertNull(pool.tryAcquire(InstagramSessionPool.Lane.BACKGROUND, InstagramEndpointFamily.PROFILE, now));
+
+        InstagramSessionPool.Lease interactive = pool.tryAcquire(INTERACTIVE, InstagramEndpointFamily.PROFILE, now);
+        assertNotNull(interactive);
+        interactive.release();
+    }
+}
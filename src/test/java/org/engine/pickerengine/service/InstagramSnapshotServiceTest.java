@@ -0,0 +1,75 @@
+package org.engine.pickerengine.service;
+
+import org.engine.pickerengine.dto.InstagramProfile;
+import org.engine.pickerengine.dto.InstagramSnapshotPoint;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InstagramSnapshotServiceTest {
+
+    @Test
+    void rollsUpRawSnapshotsIntoDailyAndWeeklyBuckets() throws Exception {
+        DataSource dataSource = PostgresTestDatabase.dataSourceOrSkip();
+        InstagramSnapshotService service = new InstagramSnapshotService(dataSource, true);
+        String username = "snapshot_test_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        Instant today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+        Instant yesterday = today.minus(1, ChronoUnit.DAYS);
+        try {
+            service.record(profile(username, 100), metrics(10.0), yesterday.plus(1, ChronoUnit.HOURS));
+            service.record(profile(username, 140), metrics(30.0), yesterday.plus(5, ChronoUnit.HOURS));
+            service.record(profile(username, 150), metrics(50.0), today);
+            assertEquals(3, service.flush());
+
+            service.rollup();
+            // A second cycle re-aggregates the same buckets instead of double counting them.
+            service.rollup();
+
+            List<InstagramSnapshotPoint> daily = service.findSeries(
+                    username, "day", yesterday, today.plus(1, ChronoUnit.DAYS));
+            assertEquals(2, daily.size());
+            InstagramSnapshotPoint first = daily.get(0);
+            assertEquals(yesterday.toString(), first.timestamp());
+            assertEquals(2, first.samples());
+            assertEquals(140, first.followers());
+            assertEquals(100, first.followersMin());
+            assertEquals(140, first.followersMax());
+            assertEquals(20.0, first.recentAvgViews(), 0.001);
+            assertEquals(1, daily.get(1).samples());
+            assertEquals(150, daily.get(1).followers());
+
+            List<InstagramSnapshotPoint> weekly = service.findSeries(
+                    username, "week", yesterday.minus(7, ChronoUnit.DAYS), today.plus(1, ChronoUnit.DAYS));
+            assertEquals(3, weekly.stream().mapToInt(InstagramSnapshotPoint::samples).sum());
+        } finally {
+            delete(dataSource, "DELETE FROM instagram_profile_snapshot_rollups WHERE username = ?", username);
+            delete(dataSource, "DELETE FROM instagram_profile_snapshots WHERE username = ?", username);
+        }
+    }
+
+    private static InstagramProfile profile(String username, int followers) {
+        return new InstagramProfile("", null, null, followers, 10, username, false, false, 5, null, null, username);
+    }
+
+    private static InstagramInsightsCalculator.Metrics metrics(double recentAvgViews) {
+        return new InstagramInsightsCalculator.Metrics(
+                InstagramInsightsCalculator.VERSION,
+                null, false, null, recentAvgViews, null, null, List.of(), null, null, null);
+    }
+
+    private static void delete(DataSource dataSource, String sql, String username) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, username);
+            statement.executeUpdate();
+        }
+    }
+}
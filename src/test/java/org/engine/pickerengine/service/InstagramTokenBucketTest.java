@@ -0,0 +1,32 @@
+package org.engine.pickerengine.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstagramTokenBucketTest {
+
+    @Test
+    void refillsAfterBurstIsSpent() {
+        InstagramTokenBucket bucket = new InstagramTokenBucket(2, 1, 0);
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+        assertEquals(1000, bucket.millisUntilAvailable(0));
+        assertTrue(bucket.tryAcquire(1000));
+    }
+
+    @Test
+    void refundReturnsTokenWithoutExceedingCapacity() {
+        InstagramTokenBucket bucket = new InstagramTokenBucket(1, 1, 0);
+        assertTrue(bucket.tryAcquire(0));
+        bucket.refund();
+        assertTrue(bucket.tryAcquire(0));
+        bucket.refund();
+        bucket.refund();
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+    }
+}
@@ -0,0 +1,30 @@
+package org.engine.pickerengine.service;
+
+import org.postgresql.ds.PGSimpleDataSource;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// SQL-level tests run against the database in PICKER_TEST_DB_URL and are skipped when it is unset.
+final class PostgresTestDatabase {
+
+    private PostgresTestDatabase() {
+    }
+
+    static DataSource dataSourceOrSkip() {
+        String url = System.getenv("PICKER_TEST_DB_URL");
+        assumeTrue(url != null && !url.isBlank(), "PICKER_TEST_DB_URL is not set");
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(url);
+        String user = System.getenv("PICKER_TEST_DB_USER");
+        if (user != null && !user.isBlank()) {
+            dataSource.setUser(user);
+        }
+        String password = System.getenv("PICKER_TEST_DB_PASSWORD");
+        if (password != null) {
+            dataSource.setPassword(password);
+        }
+        return dataSource;
+    }
+}